@@ -0,0 +1,27 @@
+package com.study.tony.wrench.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口，未指定结果格式时按 JSON 写入 jmh-result.json，便于不同版本之间对比
+ * <p>
+ * 执行：java -jar target/benchmarks.jar [JMH 参数]，其余参数原样交给 JMH，如 -rf csv -rff result.csv
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.add("-rff");
+            arguments.add("jmh-result.json");
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+
+}
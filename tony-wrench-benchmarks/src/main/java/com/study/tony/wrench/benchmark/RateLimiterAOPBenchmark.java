@@ -0,0 +1,188 @@
+package com.study.tony.wrench.benchmark;
+
+import com.study.tony.wrench.ratelimiter.aop.RateLimiterAOP;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorFactory;
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 经过代理调用被拦截方法的完整路径（RateLimiterAOP.doRouter）在 1、8、64 个线程下的吞吐
+ * <p>
+ * 执行：java -jar target/benchmarks.jar RateLimiterAOPBenchmark，结果默认写入 jmh-result.json，见 {@link BenchmarkMain}
+ * <p>
+ * scenario：
+ * 1. none - 不经过代理直接调用，作为基线
+ * 2. key_all - key 为 all，只有一个限流器，不做拦截标识提取
+ * 3. key_extraction - 从请求对象上提取 userId，每个 key 一个限流器
+ * 4. blacklist - 在 key_extraction 的基础上开启黑名单，每次调用多一次黑名单查询
+ * 5. fallback - 频次很低，绝大部分请求被拦截，压的是回调方法调用
+ * <p>
+ * keys：hot 所有请求同一个 key；high_cardinality 每个线程轮流访问 65536 个 key。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterAOPBenchmark {
+
+    private static final int KEY_COUNT = 1 << 16;
+
+    @Param({"none", "key_all", "key_extraction", "blacklist", "fallback"})
+    public String scenario;
+
+    @Param({"hot", "high_cardinality"})
+    public String keys;
+
+    private Api target;
+
+    private Api api;
+
+    private int scenarioIndex;
+
+    private DrawReq[] requests;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        RateLimiterDescriptorCache rateLimiterDescriptorCache = new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(
+                new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 600_000, 1_000_000), new KeyExtractorFactory(), new FallbackInvokerFactory()));
+        // 拦截日志按时间采样，不影响吞吐
+        RateLimiterAOP rateLimiterAOP = new RateLimiterAOP(rateLimiterDescriptorCache, new RateLimiterEventRecorder());
+        Field rateLimiterSwitch = RateLimiterAOP.class.getDeclaredField("rateLimiterSwitch");
+        rateLimiterSwitch.setAccessible(true);
+        rateLimiterSwitch.set(rateLimiterAOP, "open");
+
+        target = new Api();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(rateLimiterAOP);
+        api = proxyFactory.getProxy();
+
+        switch (scenario) {
+            case "none":
+                scenarioIndex = 0;
+                break;
+            case "key_all":
+                scenarioIndex = 1;
+                break;
+            case "key_extraction":
+                scenarioIndex = 2;
+                break;
+            case "blacklist":
+                scenarioIndex = 3;
+                break;
+            default:
+                scenarioIndex = 4;
+        }
+
+        requests = new DrawReq[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            requests[i] = new DrawReq("hot".equals(keys) ? "user0" : "user" + i, "activity01");
+        }
+    }
+
+    /**
+     * 每个线程从不同的位置开始轮询 key
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private static final AtomicInteger SEED = new AtomicInteger();
+
+        int index;
+
+        @Setup
+        public void setup() {
+            index = SEED.getAndIncrement() * 7919;
+        }
+
+        int next() {
+            return (index++) & (KEY_COUNT - 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String doRouter_1_thread(Cursor cursor) {
+        return invoke(requests[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String doRouter_8_threads(Cursor cursor) {
+        return invoke(requests[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String doRouter_64_threads(Cursor cursor) {
+        return invoke(requests[cursor.next()]);
+    }
+
+    private String invoke(DrawReq req) {
+        switch (scenarioIndex) {
+            case 0:
+                return target.keyAll(req);
+            case 1:
+                return api.keyAll(req);
+            case 2:
+                return api.keyExtraction(req);
+            case 3:
+                return api.blacklist(req);
+            default:
+                return api.fallback(req);
+        }
+    }
+
+    public static class Api {
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1_000_000_000, fallbackMethod = "rejected")
+        public String keyAll(DrawReq req) {
+            return req.userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1_000_000_000, fallbackMethod = "rejected")
+        public String keyExtraction(DrawReq req) {
+            return req.userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1_000_000_000, blacklistCount = 1_000_000, fallbackMethod = "rejected")
+        public String blacklist(DrawReq req) {
+            return req.userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1, fallbackMethod = "rejected")
+        public String fallback(DrawReq req) {
+            return req.userId;
+        }
+
+        public String rejected(DrawReq req) {
+            return "rejected";
+        }
+
+    }
+
+    public static class DrawReq {
+
+        private final String userId;
+
+        private final String activityId;
+
+        public DrawReq(String userId, String activityId) {
+            this.userId = userId;
+            this.activityId = activityId;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.study.tony.wrench.benchmark;
+
+import com.study.tony.wrench.ratelimiter.domain.limiter.GuavaRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.SlidingWindowCounterRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.SlidingWindowLogRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.StripedTokenBucketRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个热点 key 上各限流器实现的 tryAcquire 吞吐对比，滑动窗口均为 1 秒窗口
+ * <p>
+ * 执行：java -jar target/benchmarks.jar RateLimiterBenchmark -t 64
+ * <p>
+ * permitsPerSecond 取一个很大的值时，绝大部分请求都能拿到许可，压的是 CAS / 锁的竞争；
+ * 取一个很小的值时，绝大部分请求被拒绝，压的是拒绝路径。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"guava", "token_bucket", "striped", "sliding_window_counter", "sliding_window_log"})
+    public String limiter;
+
+    @Param({"1000", "1000000000"})
+    public double permitsPerSecond;
+
+    private IRateLimiter rateLimiter;
+
+    @Setup
+    public void setup() {
+        switch (limiter) {
+            case "guava":
+                rateLimiter = new GuavaRateLimiter(permitsPerSecond);
+                break;
+            case "striped":
+                rateLimiter = new StripedTokenBucketRateLimiter(permitsPerSecond, Runtime.getRuntime().availableProcessors());
+                break;
+            case "sliding_window_counter":
+                rateLimiter = new SlidingWindowCounterRateLimiter(permitsPerSecond, 1000, 10);
+                break;
+            case "sliding_window_log":
+                // 日志长度等于窗口许可数，许可数很大时改用 1 毫秒窗口，保持内存可控
+                rateLimiter = new SlidingWindowLogRateLimiter(permitsPerSecond, permitsPerSecond > 1_000_000 ? 1 : 1000);
+                break;
+            default:
+                rateLimiter = new TokenBucketRateLimiter(permitsPerSecond);
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire();
+    }
+
+}
@@ -3,6 +3,7 @@ package com.study.tony.wrench.ratelimiter.config;
 import com.study.tony.wrench.ratelimiter.domain.service.IDynamicConfigCenterService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Configuration;
 
@@ -26,7 +27,7 @@ import org.springframework.context.annotation.Configuration;
  */
 @Slf4j
 @Configuration
-public class DynamicConfigCenterAutoConfig implements BeanPostProcessor {
+public class DynamicConfigCenterAutoConfig implements BeanPostProcessor, SmartInitializingSingleton {
 
     /**
      * 动态配置中心服务
@@ -61,9 +62,16 @@ public class DynamicConfigCenterAutoConfig implements BeanPostProcessor {
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         // 调用动态配置中心服务处理Bean
-        // 这个方法会扫描Bean中的@DCCValue注解，并从Redis读取配置值
-        log.info("proxy bean name ==> {}", beanName);
+        // 这个方法会扫描Bean中的@DCCValue注解，并从Redis读取配置值；没有@DCCValue字段的Bean按类缓存直接跳过
         return dynamicConfigCenterService.initAttributeByProxy(bean);
     }
 
+    /**
+     * 所有单例创建完成后，批量加载后置处理期间收集的配置
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        dynamicConfigCenterService.loadPendingAttributes();
+    }
+
 }
@@ -6,6 +6,7 @@ import com.study.tony.wrench.ratelimiter.domain.service.DynamicConfigCenterServi
 import com.study.tony.wrench.ratelimiter.domain.service.IDynamicConfigCenterService;
 import com.study.tony.wrench.ratelimiter.listener.DynamicConfigCenterAdjustListener;
 import com.study.tony.wrench.ratelimiter.types.common.Constants;
+import org.apache.commons.lang.StringUtils;
 import org.redisson.Redisson;
 import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
@@ -53,7 +54,7 @@ public class DynamicConfigCenterRegisterAutoConfig {
      * @return RedissonClient Redis客户端实例
      */
     @Bean("xfgWrenchRedissonClient")
-    public RedissonClient redissonClient(DynamicConfigCenterRegisterAutoProperties properties) {
+    public RedissonClient redissonClient(DynamicConfigCenterRegisterAutoProperties properties, DynamicConfigCenterAutoProperties dynamicConfigCenterAutoProperties) {
         Config config = new Config();
         // 设置JSON编解码器，用于序列化/反序列化消息
         config.setCodec(JsonJacksonCodec.INSTANCE);
@@ -77,6 +78,11 @@ public class DynamicConfigCenterRegisterAutoConfig {
         }
         ;
 
+        // 开启本地快照时延迟建立连接，Redis不可用也不影响应用启动
+        if (StringUtils.isNotBlank(dynamicConfigCenterAutoProperties.getSnapshotPath())) {
+            config.setLazyInitialization(true);
+        }
+
         RedissonClient redissonClient = Redisson.create(config);
 
         log.info("xfg-wrench，注册器（redis）链接初始化完成。{} {} {}", properties.getHost(), properties.getPoolSize(), !redissonClient.isShutdown());
@@ -94,10 +100,10 @@ public class DynamicConfigCenterRegisterAutoConfig {
      *
      * @param dynamicConfigCenterAutoProperties 动态配置属性
      * @param xfgWrenchRedissonClient Redis客户端
-     * @return IDynamicConfigCenterService 动态配置服务接口
+     * @return DynamicConfigCenterService 动态配置服务
      */
     @Bean
-    public IDynamicConfigCenterService dynamicConfigCenterService(DynamicConfigCenterAutoProperties dynamicConfigCenterAutoProperties, RedissonClient xfgWrenchRedissonClient) {
+    public DynamicConfigCenterService dynamicConfigCenterService(DynamicConfigCenterAutoProperties dynamicConfigCenterAutoProperties, RedissonClient xfgWrenchRedissonClient) {
         return new DynamicConfigCenterService(dynamicConfigCenterAutoProperties, xfgWrenchRedissonClient);
     }
 
@@ -125,17 +131,25 @@ public class DynamicConfigCenterRegisterAutoConfig {
      *
      * @param dynamicConfigCenterAutoProperties 动态配置属性
      * @param redissonClient Redis客户端
+     * @param dynamicConfigCenterService 动态配置服务，开启本地快照时负责异步订阅和失败重试
      * @param dynamicConfigCenterAdjustListener 配置变更监听器
      * @return RTopic Redis主题实例
      */
     @Bean(name = "dynamicConfigCenterRedisTopic")
     public RTopic threadPoolConfigAdjustListener(DynamicConfigCenterAutoProperties dynamicConfigCenterAutoProperties,
                                                  RedissonClient redissonClient,
+                                                 DynamicConfigCenterService dynamicConfigCenterService,
                                                  DynamicConfigCenterAdjustListener dynamicConfigCenterAdjustListener) {
         // 根据系统名称创建主题名称，格式：DYNAMIC_CONFIG_CENTER_REDIS_TOPIC_系统名
         RTopic topic = redissonClient.getTopic(Constants.getTopic(dynamicConfigCenterAutoProperties.getSystem()));
         // 将监听器绑定到主题，当有AttributeVO类型的消息时，会触发监听器
-        topic.addListener(AttributeVO.class, dynamicConfigCenterAdjustListener);
+        if (StringUtils.isBlank(dynamicConfigCenterAutoProperties.getSnapshotPath())) {
+            topic.addListener(AttributeVO.class, dynamicConfigCenterAdjustListener);
+            return topic;
+        }
+
+        // 开启本地快照时异步订阅，Redis不可用不阻塞启动，订阅失败时退避重试
+        dynamicConfigCenterService.subscribe(topic, dynamicConfigCenterAdjustListener);
         return topic;
     }
 
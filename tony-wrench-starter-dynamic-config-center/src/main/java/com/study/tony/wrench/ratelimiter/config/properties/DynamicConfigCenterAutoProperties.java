@@ -76,6 +76,31 @@ public class DynamicConfigCenterAutoProperties {
      */
     private String keyPrefix = "tony_wrench_config";
 
+    /**
+     * 启动时批量加载配置
+     * 
+     * - true：Bean后置处理时先注入默认值并收集配置键，所有单例创建完成后一次Redis管道读写全部配置，
+     *   启动耗时从 字段数 × RTT 降到约 1 个 RTT；单例初始化（如 @PostConstruct）期间读到的是默认值
+     * - false：每个字段在Bean后置处理时逐个读取Redis，初始化代码读到的就是Redis中的值
+     * 
+     * 配置字段较多、启动耗时敏感，且没有在初始化阶段读取 @DCCValue 字段的应用，可配置 tony.wrench.config.batch-load: true 开启
+     * 
+     * 默认值：false
+     */
+    private boolean batchLoad = false;
+
+    /**
+     * 本地快照文件路径
+     * 
+     * 配置后保存最近一次从Redis确认过的全部配置值，例如：./data/dcc-user-service.snapshot
+     * 1. 启动时先注入快照值，不再等待Redis，后台与Redis对齐后刷新配置并重写快照
+     * 2. Redis不可用时应用仍可启动，使用快照值（快照中没有则使用默认值），按刷新间隔重试对齐
+     * 3. 配置动态变更后同步重写快照；快照先写临时文件再原子替换，并带版本号和校验和
+     * 
+     * 默认值：空，不启用本地快照
+     */
+    private String snapshotPath = "";
+
     /**
      * 生成Redis键名
      * 
@@ -179,4 +204,40 @@ public class DynamicConfigCenterAutoProperties {
     public void setKeyPrefix(String keyPrefix) {
         this.keyPrefix = keyPrefix;
     }
+
+    /**
+     * 是否启动时批量加载配置
+     * 
+     * @return true 批量加载
+     */
+    public boolean isBatchLoad() {
+        return batchLoad;
+    }
+
+    /**
+     * 设置是否启动时批量加载配置
+     * 
+     * @param batchLoad 是否批量加载
+     */
+    public void setBatchLoad(boolean batchLoad) {
+        this.batchLoad = batchLoad;
+    }
+
+    /**
+     * 获取本地快照文件路径
+     * 
+     * @return 本地快照文件路径，为空时不启用
+     */
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * 设置本地快照文件路径
+     * 
+     * @param snapshotPath 本地快照文件路径
+     */
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
 }
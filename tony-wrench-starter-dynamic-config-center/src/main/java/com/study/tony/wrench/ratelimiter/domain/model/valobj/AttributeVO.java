@@ -45,6 +45,14 @@ public class AttributeVO {
      */
     private String value;
 
+    /**
+     * 配置版本号
+     * 
+     * 通过 releaseAttribute 发布的变更携带全局递增的版本号，节点据此发现丢失的消息并增量同步；
+     * 直接发布到主题、未携带版本号的消息为 0，按原有方式处理
+     */
+    private long version;
+
     /**
      * 默认构造函数
      * 用于JSON反序列化
@@ -63,6 +71,19 @@ public class AttributeVO {
         this.value = value;
     }
 
+    /**
+     * 带版本号的构造函数
+     * 
+     * @param attribute 属性名称
+     * @param value 新的配置值
+     * @param version 配置版本号
+     */
+    public AttributeVO(String attribute, String value, long version) {
+        this.attribute = attribute;
+        this.value = value;
+        this.version = version;
+    }
+
     /**
      * 获取属性名称
      * 
@@ -98,4 +119,22 @@ public class AttributeVO {
     public void setValue(String value) {
         this.value = value;
     }
+
+    /**
+     * 获取配置版本号
+     * 
+     * @return 配置版本号，未携带时为 0
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 设置配置版本号
+     * 
+     * @param version 配置版本号
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -6,16 +6,46 @@ import com.study.tony.wrench.ratelimiter.domain.model.valobj.AttributeVO;
 import com.study.tony.wrench.ratelimiter.types.annotations.DCCValue;
 import com.study.tony.wrench.ratelimiter.types.common.Constants;
 import org.apache.commons.lang.StringUtils;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.protocol.ScoredEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * 动态配置中心服务实现类
@@ -31,15 +61,49 @@ import java.util.concurrent.ConcurrentHashMap;
  * 2. 扫描Bean中带有@DCCValue注解的字段
  * 3. 从Redis读取配置值，如果不存在则使用默认值并写入Redis
  * 4. 将配置值注入到Bean字段中
- * 5. 将Bean注册到dccBeanGroup中，以便后续动态更新
+ * 5. 将（Bean，字段）的预编译写入器注册到dccBeanGroup中，以便后续动态更新
  * 6. 运行时，通过Redis主题监听配置变更，实时更新Bean字段值
  *
  * @author Fuzhengwei bugstack.cn @小傅哥
  */
-public class DynamicConfigCenterService implements IDynamicConfigCenterService {
+public class DynamicConfigCenterService implements IDynamicConfigCenterService, IDynamicAttributeService {
 
     private final Logger log = LoggerFactory.getLogger(DynamicConfigCenterAutoConfig.class);
 
+    private static final DCCField[] EMPTY_FIELDS = new DCCField[0];
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 发布配置变更：递增全局版本号、写入配置值、记录该属性的最新版本，三步在Redis中原子完成
+     * KEYS: 版本号、配置键、变更记录；ARGV: 属性名、属性值
+     */
+    private static final String RELEASE_SCRIPT = "local version = redis.call('incr', KEYS[1]); "
+            + "redis.call('set', KEYS[2], ARGV[2]); "
+            + "redis.call('zadd', KEYS[3], version, ARGV[1]); "
+            + "return version;";
+
+    /** 订阅配置变更主题失败后的首次重试间隔（毫秒），之后每次翻倍 */
+    private static final long SUBSCRIBE_RETRY_MIN_MILLIS = 1000;
+
+    /** 订阅配置变更主题失败后的最大重试间隔（毫秒） */
+    private static final long SUBSCRIBE_RETRY_MAX_MILLIS = 60_000;
+
+    /** 配置变更后延迟写入本地快照的时间（毫秒），期间的多次变更合并为一次写入 */
+    private static final long SNAPSHOT_FLUSH_DELAY_MILLIS = 1000;
+
+    /**
+     * 类级别的@DCCValue字段元数据缓存
+     * 每个类只反射扫描一次（含所有父类），没有@DCCValue字段的类缓存为空数组，
+     * 容器中成千上万的框架Bean后续只需一次查表即可跳过
+     */
+    private static final ClassValue<DCCField[]> DCC_FIELDS = new ClassValue<DCCField[]>() {
+        @Override
+        protected DCCField[] computeValue(Class<?> type) {
+            return scanFields(type);
+        }
+    };
+
     /**
      * 动态配置属性，包含系统名称等配置信息
      */
@@ -53,10 +117,59 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
     /**
      * Bean与配置的映射关系
      * Key: Redis配置键（格式：系统名_属性名）
-     * Value: 对应的Bean实例
-     * 用于配置变更时快速找到需要更新的Bean
+     * Value: 使用该配置的全部（Bean，字段）写入器，多个Bean共用同一配置时逐个更新
+     * 用于配置变更时快速找到需要更新的Bean；写时复制，读取无锁
+     */
+    private final Map<String, DCCSetter[]> dccBeanGroup = new ConcurrentHashMap<>();
+
+    /**
+     * 编程方式注册的配置监听
+     * Key: Redis配置键（格式：系统名_属性名）
+     * Value: 配置变更回调
+     */
+    private final Map<String, Consumer<String>> dccListenerGroup = new ConcurrentHashMap<>();
+
+    /**
+     * 启动期间收集的待加载配置，加载完成后置为 null
+     * 1. 批量加载模式下，Bean后置处理时只注入默认值并记录在这里，所有单例创建完成后一次性从Redis加载
+     * 2. 开启本地快照时，启动期间注册的配置都先使用快照值并记录在这里，由后台线程与Redis对齐
+     */
+    private List<PendingAttribute> pendingAttributes = new ArrayList<>();
+
+    /**
+     * 本地快照，未配置快照路径时为 null
+     */
+    private final DynamicConfigCenterSnapshot snapshot;
+
+    /**
+     * 启动时从本地快照读取的配置值
+     * Key: Redis配置键（格式：系统名_属性名）
+     */
+    private final Map<String, String> snapshotValues;
+
+    /**
+     * 当前生效的配置值，用于写入本地快照
+     * Key: Redis配置键（格式：系统名_属性名）
+     */
+    private final Map<String, String> resolvedValues = new ConcurrentHashMap<>();
+
+    /**
+     * 本地快照是否有尚未写入的变更，由后台调度线程合并写入
      */
-    private final Map<String, Object> dccBeanGroup = new ConcurrentHashMap<>();
+    private final AtomicBoolean snapshotDirty = new AtomicBoolean();
+
+    /**
+     * 本节点已应用的配置版本号，-1 表示尚未与Redis对齐
+     * 读写都在 versionLock 内完成，保证带版本号的变更按顺序应用
+     */
+    private long appliedVersion = -1;
+
+    private final Object versionLock = new Object();
+
+    /**
+     * 后台调度线程：定时比对版本号、重试订阅配置变更主题、合并写入本地快照，首次使用时创建，Redis客户端关闭后停止
+     */
+    private volatile ScheduledExecutorService scheduler;
 
     /**
      * 构造函数
@@ -67,6 +180,13 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
     public DynamicConfigCenterService(DynamicConfigCenterAutoProperties properties, RedissonClient redissonClient) {
         this.properties = properties;
         this.redissonClient = redissonClient;
+        if (StringUtils.isNotBlank(properties.getSnapshotPath())) {
+            this.snapshot = new DynamicConfigCenterSnapshot(Paths.get(properties.getSnapshotPath()));
+            this.snapshotValues = snapshot.load();
+        } else {
+            this.snapshot = null;
+            this.snapshotValues = Collections.emptyMap();
+        }
     }
 
     /**
@@ -74,7 +194,7 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
      * <p>
      * 这个方法在Bean初始化完成后被调用，主要工作：
      * 1. 处理AOP代理对象，获取真实的目标类
-     * 2. 扫描类中带有@DCCValue注解的字段
+     * 2. 从类元数据缓存中获取带有@DCCValue注解的字段（含父类字段），没有则直接返回
      * 3. 解析注解值，格式：属性名:默认值
      * 4. 从Redis读取配置值，如果不存在则使用默认值
      * 5. 将配置值注入到Bean字段中
@@ -95,27 +215,16 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
             targetBeanObject = AopProxyUtils.getSingletonTarget(bean);
         }
 
-        // 获取类中声明的所有字段
-        Field[] fields = targetBeanClass.getDeclaredFields();
-        for (Field field : fields) {
-            // 检查字段是否带有@DCCValue注解
-            if (!field.isAnnotationPresent(DCCValue.class)) {
-                continue;
-            }
-
-            // 获取注解信息
-            DCCValue dccValue = field.getAnnotation(DCCValue.class);
-            String value = dccValue.value();
-
-            // 验证注解值格式
-            if (StringUtils.isBlank(value)) {
-                throw new RuntimeException(field.getName() + " @DCCValue is not config value config case 「isSwitch/isSwitch:1」");
-            }
+        // 获取类中带有@DCCValue注解的字段，没有则直接跳过
+        DCCField[] dccFields = DCC_FIELDS.get(targetBeanClass);
+        if (0 == dccFields.length) {
+            return bean;
+        }
 
-            // 解析注解值，格式：属性名:默认值
-            String[] splits = value.split(Constants.SYMBOL_COLON);
-            String key = properties.getKey(splits[0].trim());  // 生成Redis键：系统名_属性名
-            String defaultValue = splits.length == 2 ? splits[1] : null;
+        for (DCCField dccField : dccFields) {
+            Field field = dccField.field;
+            String key = properties.getKey(dccField.attribute);  // 生成Redis键：系统名_属性名
+            String defaultValue = dccField.defaultValue;
 
             // 设置值，默认为默认值
             String setValue = defaultValue;
@@ -126,27 +235,39 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
                     throw new RuntimeException("dcc config error " + key + " is not null - 请配置默认值！");
                 }
 
-                // Redis操作：判断配置Key是否存在，不存在则创建，存在则获取最新值
-                RBucket<String> bucket = redissonClient.getBucket(key);
-                boolean exists = bucket.isExists();
-                if (!exists) {
-                    // 如果Redis中不存在该配置，则使用默认值并写入Redis
-                    bucket.set(defaultValue);
-                } else {
-                    // 如果Redis中存在该配置，则读取最新值
-                    setValue = bucket.get();
+                // 批量加载模式、开启本地快照时：先注入默认值（有本地快照时注入快照值），所有单例创建完成后统一从Redis加载，
+                // 开启本地快照时由后台线程加载，启动不等待Redis
+                DCCSetter setter = new DCCSetter(targetBeanObject, field);
+                PendingAttribute pendingAttribute = new PendingAttribute(key, defaultValue, setter);
+                if ((properties.isBatchLoad() || null != snapshot) && null != deferAttribute(pendingAttribute, true)) {
+                    registerSetter(key, setter);
+                    continue;
                 }
 
-                // 通过反射将配置值注入到Bean字段中
-                field.setAccessible(true);
-                field.set(targetBeanObject, setValue);
-                field.setAccessible(false);
+                try {
+                    // Redis操作：判断配置Key是否存在，不存在则创建，存在则获取最新值
+                    RBucket<String> bucket = redissonClient.getBucket(key);
+                    boolean exists = bucket.isExists();
+                    if (!exists) {
+                        // 如果Redis中不存在该配置，则使用默认值并写入Redis
+                        bucket.set(defaultValue);
+                    } else {
+                        // 如果Redis中存在该配置，则读取最新值
+                        setValue = orDefault(key, bucket.get(), defaultValue);
+                    }
+                } catch (RuntimeException e) {
+                    setValue = fallback(pendingAttribute, e);
+                }
+                resolvedValues.put(key, setValue);
+
+                // 将配置值注入到Bean字段中
+                setter.accept(setValue);
+
+                // 将写入器注册到管理映射中，以便后续动态更新
+                registerSetter(key, setter);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
-
-            // 将Bean注册到管理映射中，以便后续动态更新
-            dccBeanGroup.put(key, targetBeanObject);
         }
 
         return bean;
@@ -160,14 +281,26 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
      * 2. 更新Redis中的配置值
      * 3. 找到对应的Bean实例
      * 4. 通过反射更新Bean字段值
+     * <p>
+     * 通过 releaseAttribute 发布、带版本号的变更不再写Redis，按版本号顺序应用，发现缺口时增量同步
      *
      * @param attributeVO 属性值对象，包含属性名和新值
      */
     @Override
     public void updateAttribute(AttributeVO attributeVO) {
+        if (null == attributeVO.getValue()) {
+            log.warn("DCC 配置变更的值为空，忽略变更 attribute: {} version: {}", attributeVO.getAttribute(), attributeVO.getVersion());
+            return;
+        }
+
+        // 带版本号的变更已由发布方写入Redis，只需按版本号顺序应用到本节点
+        if (attributeVO.getVersion() > 0) {
+            applyVersion(attributeVO);
+            return;
+        }
+
         // 根据属性信息生成Redis键
         String key = properties.getKey(attributeVO.getAttribute());
-        String value = attributeVO.getValue();
 
         // 更新Redis中的配置值
         RBucket<String> bucket = redissonClient.getBucket(key);
@@ -175,29 +308,541 @@ public class DynamicConfigCenterService implements IDynamicConfigCenterService {
         if (!exists) return;  // 如果配置不存在，直接返回
         bucket.set(attributeVO.getValue());
 
-        // 从管理映射中获取对应的Bean实例
-        Object objBean = dccBeanGroup.get(key);
-        if (null == objBean) return;
+        applyAttribute(attributeVO.getAttribute(), attributeVO.getValue());
+    }
+
+    /**
+     * 将配置值应用到本节点：写入本地快照、回调监听、更新Bean字段
+     */
+    private void applyAttribute(String attribute, String value) {
+        String key = properties.getKey(attribute);
+        if (null == value) {
+            log.warn("DCC 配置值为空，忽略变更 key: {}", key);
+            return;
+        }
+
+        // 记录最新值，本地快照由后台调度线程合并写入，不在监听线程上刷盘
+        if (null != resolvedValues.replace(key, value)) {
+            markSnapshotDirty();
+        }
 
-        // 处理AOP代理对象，获取真实的目标类
-        Class<?> objBeanClass = objBean.getClass();
-        if (AopUtils.isAopProxy(objBean)) {
-            objBeanClass = AopUtils.getTargetClass(objBean);
+        // 编程方式注册的配置，回调监听
+        Consumer<String> listener = dccListenerGroup.get(key);
+        if (null != listener) {
+            listener.accept(value);
+            log.info("DCC 节点监听，动态回调 key: {} value: {}", key, value);
         }
-        log.info("key need to be updated: {}, value: {}, bean: {}", key, value, objBean.getClass().getName());
 
+        // 从管理映射中获取该配置的全部写入器，逐个更新，无需再反射查找字段
+        DCCSetter[] setters = dccBeanGroup.get(key);
+        if (null == setters) return;
+
+        for (DCCSetter setter : setters) {
+            setter.accept(value);
+            log.info("DCC 节点监听，动态设置值 key: {} value: {}, class: {}", key, value, setter.bean.getClass().getName());
+        }
+    }
+
+    /**
+     * 注册字段写入器
+     * 写时复制：每次注册生成新数组替换旧数组，配置变更时读取无锁；同一（Bean，字段）只注册一次
+     */
+    private void registerSetter(String key, DCCSetter setter) {
+        dccBeanGroup.compute(key, (k, setters) -> {
+            if (null == setters) {
+                return new DCCSetter[]{setter};
+            }
+            for (DCCSetter registered : setters) {
+                if (registered.bean == setter.bean && registered.field.equals(setter.field)) {
+                    return setters;
+                }
+            }
+            DCCSetter[] copy = Arrays.copyOf(setters, setters.length + 1);
+            copy[setters.length] = setter;
+            return copy;
+        });
+    }
+
+    /**
+     * 按版本号顺序应用变更
+     * 1. 版本号不大于本地版本：重复或过期的消息，直接忽略
+     * 2. 版本号连续：直接应用
+     * 3. 出现缺口：说明中间的消息丢失（断线重连、GC停顿等），增量同步缺失的配置
+     */
+    private void applyVersion(AttributeVO attributeVO) {
+        synchronized (versionLock) {
+            long version = attributeVO.getVersion();
+            if (version <= appliedVersion) {
+                return;
+            }
+            // 尚未与Redis对齐时先应用，启动加载时会读取全局版本号
+            if (appliedVersion < 0 || version == appliedVersion + 1) {
+                applyAttribute(attributeVO.getAttribute(), attributeVO.getValue());
+                if (appliedVersion >= 0) {
+                    appliedVersion = version;
+                }
+                return;
+            }
+            syncChangedAttributes(version);
+        }
+    }
+
+    /**
+     * 增量同步：从变更记录中取出本地版本之后变更过的属性，只读取这些属性的最新值
+     *
+     * @param targetVersion 触发同步时已知的最新版本号
+     */
+    private void syncChangedAttributes(long targetVersion) {
+        long fromVersion = appliedVersion;
+        long start = System.currentTimeMillis();
+        Collection<ScoredEntry<String>> changes = redissonClient.<String>getScoredSortedSet(Constants.getChangelogKey(properties.getSystem()))
+                .entryRange(fromVersion, false, Double.POSITIVE_INFINITY, true);
+
+        long toVersion = fromVersion;
+        Map<String, RFuture<String>> values = new LinkedHashMap<>();
+        RBatch batch = redissonClient.createBatch();
+        for (ScoredEntry<String> change : changes) {
+            RBucketAsync<String> bucket = batch.getBucket(properties.getKey(change.getValue()));
+            values.put(change.getValue(), bucket.getAsync());
+            toVersion = Math.max(toVersion, change.getScore().longValue());
+        }
+        if (!values.isEmpty()) {
+            batch.execute();
+        }
+
+        for (Map.Entry<String, RFuture<String>> entry : values.entrySet()) {
+            String value = entry.getValue().toCompletableFuture().getNow(null);
+            if (null != value) {
+                applyAttribute(entry.getKey(), value);
+            }
+        }
+        appliedVersion = toVersion;
+        log.info("DCC 检测到配置版本缺口，增量同步完成 本地版本: {} -> {} 目标版本: {} 同步配置数: {} 耗时: {}ms",
+                fromVersion, toVersion, targetVersion, values.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 定时比对全局版本号，最后一条变更消息丢失时也能发现缺口
+     */
+    private void scheduleVersionCheck() {
+        long interval = properties.getRefreshInterval();
+        if (interval <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = scheduler();
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (redissonClient.isShutdown()) {
+                scheduler.shutdown();
+                return;
+            }
+            try {
+                long version = redissonClient.getAtomicLong(Constants.getVersionKey(properties.getSystem())).get();
+                synchronized (versionLock) {
+                    if (appliedVersion >= 0 && version > appliedVersion) {
+                        syncChangedAttributes(version);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("DCC 比对配置版本失败，{}ms 后重试", interval, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 异步订阅配置变更主题，Redis不可用不阻塞启动
+     * 订阅失败时在后台调度线程上按退避间隔重试，重试期间错过的变更由定时比对版本号补齐
+     *
+     * @param topic    配置变更主题
+     * @param listener 配置变更监听器
+     */
+    public void subscribe(RTopic topic, MessageListener<AttributeVO> listener) {
+        subscribe(topic, listener, SUBSCRIBE_RETRY_MIN_MILLIS);
+    }
+
+    private void subscribe(RTopic topic, MessageListener<AttributeVO> listener, long retryMillis) {
+        try {
+            topic.addListenerAsync(AttributeVO.class, listener).whenComplete((id, e) -> {
+                if (null == e) {
+                    log.info("DCC 订阅配置变更主题完成 topic: {}", topic.getChannelNames());
+                    return;
+                }
+                retrySubscribe(topic, listener, retryMillis, e);
+            });
+        } catch (RuntimeException e) {
+            // 延迟建立连接时，连接失败会直接抛出
+            retrySubscribe(topic, listener, retryMillis, e);
+        }
+    }
+
+    private void retrySubscribe(RTopic topic, MessageListener<AttributeVO> listener, long retryMillis, Throwable cause) {
+        if (redissonClient.isShutdown()) {
+            return;
+        }
+        log.warn("DCC 订阅配置变更主题失败，{}ms 后重试 topic: {}", retryMillis, topic.getChannelNames(), cause);
         try {
-            // 通过反射获取字段并更新值
-            // getDeclaredField方法用于获取指定类中声明的所有字段，包括私有字段、受保护字段和公共字段
-            Field field = objBeanClass.getDeclaredField(attributeVO.getAttribute());
-            field.setAccessible(true);
-            field.set(objBean, value);
-            field.setAccessible(false);
+            scheduler().schedule(() -> subscribe(topic, listener, Math.min(retryMillis * 2, SUBSCRIBE_RETRY_MAX_MILLIS)),
+                    retryMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("DCC 后台调度线程已停止，不再重试订阅 topic: {}", topic.getChannelNames());
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (null != scheduler) {
+            return scheduler;
+        }
+        synchronized (versionLock) {
+            if (null == this.scheduler) {
+                this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "dcc-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return this.scheduler;
+        }
+    }
+
+    /**
+     * 扫描类及其所有父类中带有@DCCValue注解的字段，并预先解析注解值
+     */
+    private static DCCField[] scanFields(Class<?> type) {
+        List<DCCField> dccFields = new ArrayList<>();
+        for (Class<?> clazz = type; null != clazz && Object.class != clazz; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                // 检查字段是否带有@DCCValue注解
+                DCCValue dccValue = field.getAnnotation(DCCValue.class);
+                if (null == dccValue) {
+                    continue;
+                }
+
+                // 验证注解值格式
+                String value = dccValue.value();
+                if (StringUtils.isBlank(value)) {
+                    throw new RuntimeException(field.getName() + " @DCCValue is not config value config case 「isSwitch/isSwitch:1」");
+                }
+
+                // 解析注解值，格式：属性名:默认值
+                String[] splits = value.split(Constants.SYMBOL_COLON);
+                dccFields.add(new DCCField(field, splits[0].trim(), splits.length == 2 ? splits[1] : null));
+            }
+        }
+        return dccFields.isEmpty() ? EMPTY_FIELDS : dccFields.toArray(EMPTY_FIELDS);
+    }
+
+    /**
+     * 启动期间记录待加载配置，并使用默认值（有本地快照时使用快照值）
+     *
+     * @param inject 是否立即注入到目标；编程方式注册的配置由调用方使用返回值
+     * @return 启动时使用的配置值；已加载完成时返回 null，需要直接读取Redis
+     */
+    private synchronized String deferAttribute(PendingAttribute attribute, boolean inject) {
+        if (null == pendingAttributes) {
+            return null;
+        }
+        String value = startupValue(attribute.key, attribute.defaultValue);
+        if (inject) {
+            attribute.target.accept(value);
+        }
+        resolvedValues.put(attribute.key, value);
+        pendingAttributes.add(attribute);
+        return value;
+    }
+
+    /**
+     * 读取Redis失败时的降级
+     * 开启本地快照时使用快照值（快照中没有则使用默认值），启动期间记录下来等待与Redis对齐；未开启时直接抛出
+     */
+    private String fallback(PendingAttribute attribute, RuntimeException e) {
+        if (null == snapshot) {
+            throw e;
+        }
+        String value = startupValue(attribute.key, attribute.defaultValue);
+        synchronized (this) {
+            if (null != pendingAttributes) {
+                pendingAttributes.add(attribute);
+            }
+        }
+        log.warn("DCC 读取Redis失败，使用本地快照值 key: {} value: {}", attribute.key, value, e);
+        return value;
+    }
+
+    /**
+     * Redis中读到空值（如读取期间配置被删除）时使用默认值，空值不注入字段、不写入快照
+     */
+    private String orDefault(String key, String value, String defaultValue) {
+        if (null == value) {
+            log.warn("DCC 读取到的配置值为空，使用默认值 key: {} value: {}", key, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private String startupValue(String key, String defaultValue) {
+        return snapshotValues.getOrDefault(key, defaultValue);
+    }
+
+    private void inject(PendingAttribute attribute, String value) {
+        attribute.target.accept(value);
+        resolvedValues.put(attribute.key, value);
+    }
+
+    /**
+     * 加载启动期间收集的配置
+     * <p>
+     * 未开启本地快照时同步加载；开启后启动不再等待Redis，由后台线程与Redis对齐，
+     * Redis不可用时按刷新间隔重试，对齐完成后写入本地快照
+     */
+    @Override
+    public void loadPendingAttributes() {
+        List<PendingAttribute> attributes;
+        synchronized (this) {
+            attributes = pendingAttributes;
+            pendingAttributes = null;
+        }
+        if (null == attributes) {
+            return;
+        }
+
+        if (null == snapshot) {
+            loadAttributes(attributes);
+            scheduleVersionCheck();
+            return;
+        }
+
+        Thread thread = new Thread(() -> reconcile(attributes), "dcc-snapshot-reconcile");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void reconcile(List<PendingAttribute> attributes) {
+        while (!redissonClient.isShutdown()) {
+            try {
+                loadAttributes(attributes);
+                markSnapshotDirty();
+                scheduleVersionCheck();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("DCC 与Redis对齐配置失败，{}ms 后重试，当前使用本地快照 path: {}", properties.getRefreshInterval(), snapshot.getPath(), e);
+            }
+            try {
+                Thread.sleep(properties.getRefreshInterval());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一次Redis管道完成全部读写：每个键先 SETNX 默认值（已存在时不覆盖），再 GET 最新值，
+     * 启动耗时从 字段数 × 2 个RTT 降到约 1 个RTT；同一管道中先读取全局版本号，作为本节点的起始版本
+     */
+    private void loadAttributes(List<PendingAttribute> attributes) {
+        long start = System.currentTimeMillis();
+        RBatch batch = redissonClient.createBatch();
+        RFuture<Long> version = batch.getAtomicLong(Constants.getVersionKey(properties.getSystem())).getAsync();
+        Map<String, RFuture<String>> values = new LinkedHashMap<>();
+        Map<String, String> before = new HashMap<>();
+        for (PendingAttribute attribute : attributes) {
+            if (values.containsKey(attribute.key)) {
+                continue;
+            }
+            before.put(attribute.key, resolvedValues.get(attribute.key));
+            RBucketAsync<String> bucket = batch.getBucket(attribute.key);
+            bucket.setIfAbsentAsync(attribute.defaultValue);
+            values.put(attribute.key, bucket.getAsync());
+        }
+        batch.execute();
+        synchronized (versionLock) {
+            appliedVersion = Math.max(appliedVersion, version.toCompletableFuture().getNow(0L));
+        }
+
+        // 加载期间已经动态更新过的配置，以更新后的值为准
+        Set<String> updated = new HashSet<>();
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            if (!Objects.equals(entry.getValue(), resolvedValues.get(entry.getKey()))) {
+                updated.add(entry.getKey());
+            }
+        }
+
+        for (PendingAttribute attribute : attributes) {
+            String value = orDefault(attribute.key, values.get(attribute.key).toCompletableFuture().getNow(null), attribute.defaultValue);
+            if (updated.contains(attribute.key) || Objects.equals(value, before.get(attribute.key))) {
+                continue;
+            }
+            inject(attribute, value);
+        }
+        log.info("DCC 批量加载配置完成，字段数: {} 配置数: {} 耗时: {}ms", attributes.size(), values.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 标记本地快照需要重写，延迟 {@link #SNAPSHOT_FLUSH_DELAY_MILLIS} 后由后台调度线程写入，期间的变更合并为一次写入
+     */
+    private void markSnapshotDirty() {
+        if (null == snapshot || !snapshotDirty.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler().schedule(this::flushSnapshot, SNAPSHOT_FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 后台调度线程已停止，直接写入
+            flushSnapshot();
+        }
+    }
+
+    /**
+     * 先清除标记再写入，写入期间的新变更会重新调度一次写入
+     */
+    private void flushSnapshot() {
+        if (snapshotDirty.compareAndSet(true, false)) {
+            saveSnapshot();
+        }
+    }
+
+    /**
+     * 写入本地快照，失败只记录日志，不影响配置生效
+     */
+    private synchronized void saveSnapshot() {
+        try {
+            snapshot.save(new TreeMap<>(resolvedValues));
+        } catch (IOException e) {
+            log.warn("DCC 写入本地快照失败 path: {}", snapshot.getPath(), e);
+        }
+    }
+
+    @Override
+    public String registerAttribute(String attribute, String defaultValue, Consumer<String> listener) {
+        if (StringUtils.isBlank(defaultValue)) {
+            throw new RuntimeException("dcc config error " + attribute + " is not null - 请配置默认值！");
+        }
+        String key = properties.getKey(attribute);
+
+        // 开启本地快照时，启动期间不等待Redis，先使用快照值，由后台线程与Redis对齐后回调监听
+        if (null != snapshot) {
+            String value = deferAttribute(new PendingAttribute(key, defaultValue, listener), false);
+            if (null != value) {
+                dccListenerGroup.put(key, listener);
+                return value;
+            }
+        }
+
+        String value = defaultValue;
+        try {
+            // Redis操作：判断配置Key是否存在，不存在则创建，存在则获取最新值
+            RBucket<String> bucket = redissonClient.getBucket(key);
+            if (!bucket.isExists()) {
+                bucket.set(defaultValue);
+            } else {
+                value = orDefault(key, bucket.get(), defaultValue);
+            }
+        } catch (RuntimeException e) {
+            value = fallback(new PendingAttribute(key, defaultValue, listener), e);
+        }
+        resolvedValues.put(key, value);
+
+        dccListenerGroup.put(key, listener);
+        return value;
+    }
+
+    @Override
+    public void publishAttribute(String attribute, String value) {
+        RBucket<String> bucket = redissonClient.getBucket(properties.getKey(attribute));
+        bucket.setAsync(value);
+    }
+
+    @Override
+    public long releaseAttribute(String attribute, String value) {
+        String system = properties.getSystem();
+        Long version = redissonClient.getScript().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                Arrays.asList(Constants.getVersionKey(system), properties.getKey(attribute), Constants.getChangelogKey(system)), attribute, value);
+        redissonClient.getTopic(Constants.getTopic(system)).publish(new AttributeVO(attribute, value, version));
+        return version;
+    }
+
+    @Override
+    public long getAttributeVersion() {
+        synchronized (versionLock) {
+            return appliedVersion;
+        }
+    }
+
+    /**
+     * 类上的@DCCValue字段元数据
+     */
+    private static final class DCCField {
+
+        private final Field field;
+
+        /** 属性名 */
+        private final String attribute;
+
+        /** 默认值，未配置时为 null */
+        private final String defaultValue;
+
+        private DCCField(Field field, String attribute, String defaultValue) {
+            this.field = field;
+            this.attribute = attribute;
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    /**
+     * 预编译的字段写入器，每个（Bean，字段）一个
+     * 注册时把字段解析为绑定了Bean实例的 MethodHandle，配置变更时直接调用
+     */
+    private static final class DCCSetter implements Consumer<String> {
+
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, String.class);
+
+        private final Object bean;
+
+        private final Field field;
+
+        private final MethodHandle setter;
+
+        private DCCSetter(Object bean, Field field) {
+            this.bean = bean;
+            this.field = field;
+            try {
+                field.setAccessible(true);
+                MethodHandle handle = LOOKUP.unreflectSetter(field);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    handle = handle.bindTo(bean);
+                }
+                this.setter = handle.asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void accept(String value) {
+            try {
+                setter.invokeExact(value);
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * 待加载的配置
+     */
+    private static final class PendingAttribute {
+
+        private final String key;
+
+        private final String defaultValue;
 
-            log.info("DCC 节点监听，动态设置值 key: {} value: {}, class: {}", key, value, objBean.getClass().getName());
+        /** 配置值的注入目标：@DCCValue字段或编程方式注册的监听 */
+        private final Consumer<String> target;
 
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        private PendingAttribute(String key, String defaultValue, Consumer<String> target) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+            this.target = target;
         }
     }
 
@@ -0,0 +1,161 @@
+package com.study.tony.wrench.ratelimiter.domain.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 动态配置本地快照
+ * <p>
+ * 保存最近一次从Redis确认过的全部配置值，应用启动时先用快照注入，再异步与Redis对齐，
+ * Redis不可用时应用仍然可以用上一次的配置启动。
+ * <p>
+ * 文件格式（大端）：
+ * 1. 魔数 int "DCCS"，格式版本 short
+ * 2. 写入时间 long，配置数量 int
+ * 3. 每个配置：键长度 int + 键（UTF-8），值长度 int + 值（UTF-8）
+ * 4. 以上全部字节的 CRC32 long
+ * <p>
+ * 先写临时文件并刷盘，再原子替换，进程在任何时刻退出都不会留下半个快照。
+ */
+public class DynamicConfigCenterSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamicConfigCenterSnapshot.class);
+
+    /** 魔数 "DCCS" */
+    private static final int MAGIC = 0x44434353;
+
+    /** 格式版本，格式变化时递增，旧版本快照直接丢弃 */
+    private static final short VERSION = 1;
+
+    /** 魔数 + 版本 + 写入时间 + 配置数量 + CRC32 */
+    private static final int MIN_LENGTH = 4 + 2 + 8 + 4 + 8;
+
+    private final Path path;
+
+    public DynamicConfigCenterSnapshot(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 读取快照
+     *
+     * @return 配置键 → 配置值；文件不存在、版本不符或校验失败时返回空
+     */
+    public Map<String, String> load() {
+        if (!Files.isRegularFile(path)) {
+            return Collections.emptyMap();
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < MIN_LENGTH) {
+                log.warn("DCC 本地快照已损坏，忽略快照 path: {} length: {}", path, bytes.length);
+                return Collections.emptyMap();
+            }
+
+            int bodyLength = bytes.length - 8;
+            CRC32 crc32 = new CRC32();
+            crc32.update(bytes, 0, bodyLength);
+            if (crc32.getValue() != ByteBuffer.wrap(bytes, bodyLength, 8).getLong()) {
+                log.warn("DCC 本地快照校验失败，忽略快照 path: {}", path);
+                return Collections.emptyMap();
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bodyLength));
+            int magic = in.readInt();
+            short version = in.readShort();
+            if (MAGIC != magic || VERSION != version) {
+                log.warn("DCC 本地快照格式不支持，忽略快照 path: {} version: {}", path, version);
+                return Collections.emptyMap();
+            }
+            long savedAt = in.readLong();
+            int count = in.readInt();
+            Map<String, String> values = new LinkedHashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                values.put(readString(in), readString(in));
+            }
+            log.info("DCC 加载本地快照完成 path: {} 配置数: {} 写入时间: {}", path, values.size(), savedAt);
+            return values;
+        } catch (IOException e) {
+            log.warn("DCC 读取本地快照失败，忽略快照 path: {}", path, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 原子写入快照
+     *
+     * @param values 配置键 → 配置值
+     * @throws IOException 写入失败，原有快照保持不变
+     */
+    public void save(Map<String, String> values) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.toByteArray());
+        out.writeLong(crc32.getValue());
+        out.flush();
+
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.study.tony.wrench.ratelimiter.domain.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 动态属性服务接口
+ * 
+ * 以编程方式注册、发布动态配置，供运行时才确定属性名的组件使用，如限流规则、自适应并发上限；
+ * 与 {@link IDynamicConfigCenterService} 分开定义，已有的 IDynamicConfigCenterService 实现升级后不受影响
+ * 
+ * 实现类：DynamicConfigCenterService
+ */
+public interface IDynamicAttributeService {
+
+    /**
+     * 以编程方式注册动态配置
+     * 
+     * 适用于运行时才确定属性名、无法使用 @DCCValue 字段的场景：
+     * 1. Redis中不存在该配置时写入默认值，存在则读取最新值
+     * 2. 配置变更时回调 listener
+     * 
+     * @param attribute    属性名
+     * @param defaultValue 默认值
+     * @param listener     配置变更回调，入参为新值
+     * @return 当前配置值
+     */
+    String registerAttribute(String attribute, String defaultValue, Consumer<String> listener);
+
+    /**
+     * 发布属性值到配置中心，只写入Redis供查看，不通知其他节点
+     * 
+     * 异步写入，可以在业务线程中调用
+     * 
+     * @param attribute 属性名
+     * @param value     属性值
+     */
+    void publishAttribute(String attribute, String value);
+
+    /**
+     * 发布配置变更并通知所有节点
+     * 
+     * 原子地写入配置值、递增全局版本号并记录变更，再通过Redis主题广播带版本号的变更消息；
+     * 节点按版本号顺序应用，发现缺口时只拉取本地版本之后变更过的配置
+     * 
+     * @param attribute 属性名
+     * @param value     属性值
+     * @return 本次变更的版本号
+     */
+    long releaseAttribute(String attribute, String value);
+
+}
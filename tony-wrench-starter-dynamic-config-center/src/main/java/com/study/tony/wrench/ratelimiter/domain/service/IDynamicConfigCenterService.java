@@ -10,6 +10,8 @@ import com.study.tony.wrench.ratelimiter.domain.model.valobj.AttributeVO;
  * 1. Bean代理处理 - 在应用启动时扫描和注入配置
  * 2. 属性值调整 - 在运行时动态更新配置值
  * 
+ * 以编程方式注册、发布配置见 {@link IDynamicAttributeService}
+ * 
  * 实现类：DynamicConfigCenterService
  * 
  * @author Fuzhengwei bugstack.cn @小傅哥
@@ -52,4 +54,21 @@ public interface IDynamicConfigCenterService {
      */
     void updateAttribute(AttributeVO attributeVO);
 
+    /**
+     * 加载启动期间收集的配置
+     * 
+     * 批量加载模式下，所有单例创建完成后调用一次，之后处理的Bean逐个读取配置
+     */
+    default void loadPendingAttributes() {
+    }
+
+    /**
+     * 本节点已应用的配置版本号
+     * 
+     * @return 配置版本号，尚未与Redis对齐时为 -1
+     */
+    default long getAttributeVersion() {
+        return -1;
+    }
+
 }
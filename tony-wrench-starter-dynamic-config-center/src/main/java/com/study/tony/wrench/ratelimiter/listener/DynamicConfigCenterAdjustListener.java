@@ -60,7 +60,7 @@ public class DynamicConfigCenterAdjustListener implements MessageListener<Attrib
     public void onMessage(CharSequence charSequence, AttributeVO attributeVO) {
         try {
             // 记录接收到的配置变更信息
-            log.info("xfg-wrench dcc config attribute:{} value:{}", attributeVO.getAttribute(), attributeVO.getValue());
+            log.info("xfg-wrench dcc config attribute:{} value:{} version:{}", attributeVO.getAttribute(), attributeVO.getValue(), attributeVO.getVersion());
             
             // 调用动态配置中心服务处理配置变更
             // 这个方法会：
@@ -34,6 +34,21 @@ public class Constants {
      */
     public final static String SYMBOL_COLON = ":";
 
+    /**
+     * 动态配置中心全局版本号Key前缀
+     * 
+     * 格式：DYNAMIC_CONFIG_CENTER_VERSION_系统名，每次发布配置变更递增
+     */
+    public final static String DYNAMIC_CONFIG_CENTER_VERSION = "DYNAMIC_CONFIG_CENTER_VERSION_";
+
+    /**
+     * 动态配置中心变更记录Key前缀
+     * 
+     * 格式：DYNAMIC_CONFIG_CENTER_CHANGELOG_系统名
+     * 有序集合，成员为属性名，分值为该属性最近一次变更的版本号，每个属性只保留一条
+     */
+    public final static String DYNAMIC_CONFIG_CENTER_CHANGELOG = "DYNAMIC_CONFIG_CENTER_CHANGELOG_";
+
     /**
      * 生成Redis主题名称
      * 
@@ -47,4 +62,24 @@ public class Constants {
         return DYNAMIC_CONFIG_CENTER_REDIS_TOPIC + application;
     }
 
+    /**
+     * 生成全局版本号Key
+     * 
+     * @param application 系统名称
+     * @return 全局版本号Key
+     */
+    public static String getVersionKey(String application) {
+        return DYNAMIC_CONFIG_CENTER_VERSION + application;
+    }
+
+    /**
+     * 生成变更记录Key
+     * 
+     * @param application 系统名称
+     * @return 变更记录Key
+     */
+    public static String getChangelogKey(String application) {
+        return DYNAMIC_CONFIG_CENTER_CHANGELOG + application;
+    }
+
 }
@@ -1,173 +1,372 @@
 package com.study.tony.wrench.ratelimiter.aop;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.util.concurrent.RateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterMethodDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterTierDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetector;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
 import com.study.tony.wrench.ratelimiter.types.annotations.DCCValue;
-import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterReturnTypeEnum;
 import org.apache.commons.lang.StringUtils;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @Aspect
 public class RateLimiterAOP {
 
-    private final Logger log = LoggerFactory.getLogger(RateLimiterAOP.class);
-
     //搞两层开关控制，一个是configuration配置类采用conditionalon注解，控制是不是加载aop类，一个是aop类里面采用dccvalue注解对应的开关，控制aop代理是不是生效
     //好处就是1.可以通过配置中心动态控制aop代理的生效与否，避免太多无用的代理，因为你开了代理没有使用它也不好，2.可以通过配置中心动态控制限流开关的开启与关闭
     @DCCValue("rateLimiterSwitch:open")
     private String rateLimiterSwitch;
 
-    // 个人限频记录1秒钟
-    private final Cache<String, RateLimiter> loginRecord = CacheBuilder.newBuilder()
-            .expireAfterWrite(1, TimeUnit.SECONDS)
-            .build();
+    // 各方法的限流描述，启动时解析，调用时按 Method 引用查找
+    private final RateLimiterDescriptorCache rateLimiterDescriptorCache;
+
+    // 限流事件记录，热点路径上只累加计数，拦截日志按时间采样输出
+    private final RateLimiterEventRecorder rateLimiterEventRecorder;
 
-    // 个人限频黑名单24h - 分布式业务场景，可以记录到 Redis 中
-    private final Cache<String, Long> blacklist = CacheBuilder.newBuilder()
-            .expireAfterWrite(24, TimeUnit.HOURS)
-            .build();
+    public RateLimiterAOP(RateLimiterDescriptorCache rateLimiterDescriptorCache, RateLimiterEventRecorder rateLimiterEventRecorder) {
+        this.rateLimiterDescriptorCache = rateLimiterDescriptorCache;
+        this.rateLimiterEventRecorder = rateLimiterEventRecorder;
+    }
 
     @Pointcut("@annotation(com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor)")
     public void aopPoint() {
     }
 
-    @Around("aopPoint() && @annotation(rateLimiterAccessInterceptor)")
-    public Object doRouter(ProceedingJoinPoint jp, RateLimiterAccessInterceptor rateLimiterAccessInterceptor) throws Throwable {
+    @Around("aopPoint()")
+    public Object doRouter(ProceedingJoinPoint jp) throws Throwable {
         // 0. 限流开关【open 开启、close 关闭】关闭后，不会走限流策略
         if (StringUtils.isBlank(rateLimiterSwitch) || "close".equals(rateLimiterSwitch)) {
             return jp.proceed();
         }
 
-        String key = rateLimiterAccessInterceptor.key();
-        if (StringUtils.isBlank(key)) {
-            throw new RuntimeException("annotation RateLimiter uId is null！");
+        // 获取限流描述 - 启动时已解析，未扫描到的（如手工创建的代理）首次调用时解析；JDK 代理拦截到的是接口方法，按实现类的方法解析
+        Method method = ((MethodSignature) jp.getSignature()).getMethod();
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.get(method);
+        if (null == descriptor) {
+            Class<?> targetClass = AopUtils.getTargetClass(jp.getTarget());
+            descriptor = rateLimiterDescriptorCache.register(method, AopUtils.getMostSpecificMethod(method, targetClass), targetClass);
+        }
+        String keyAttr = descriptor.getKeyExtractor().extract(jp.getArgs());
+
+        // 异步方法 -> 许可持有到异步结果完成；拦截时调用回调，回调抛出的异常以失败的 future 或错误信号返回，不阻塞调用线程
+        if (RateLimiterReturnTypeEnum.SYNC != descriptor.getReturnType()) {
+            return proceedAsync(new AsyncInvocation(jp, descriptor, keyAttr));
+        }
+
+        long acquireStartNanos = System.nanoTime();
+        RatePermit ratePermit = tryAcquireRate(descriptor, keyAttr, jp.getArgs(), true);
+        if (ratePermit.isRejected()) {
+            return fallbackMethodResult(jp, descriptor, keyAttr, ratePermit.reason, acquireStartNanos);
         }
-        // 获取拦截字段
-        String keyAttr = getAttrValue(key, jp.getArgs());
-        log.info("aop attr {}", keyAttr);
 
+        if (null != descriptor.getAdaptiveConcurrencyLimiter()) {
+            return proceedWithAdaptiveConcurrency(jp, descriptor, keyAttr, ratePermit, acquireStartNanos);
+        }
+
+        ConcurrencyLimiterGroup concurrencyLimiterGroup = descriptor.getConcurrencyLimiterGroup();
+        if (null == concurrencyLimiterGroup) {
+            permitted(descriptor, acquireStartNanos);
+            return jp.proceed();
+        }
+
+        // 并发数拦截 -> 归还已获取的频次许可；许可在 finally 中释放，业务异常也不会泄漏
+        ConcurrencyLimiter concurrencyLimiter = concurrencyLimiterGroup.get(keyAttr);
+        if (!concurrencyLimiter.tryAcquire()) {
+            releaseRate(descriptor, jp.getArgs(), ratePermit);
+            return fallbackMethodResult(jp, descriptor, keyAttr, RateLimiterRejectReasonEnum.CONCURRENCY, acquireStartNanos);
+        }
+        permitted(descriptor, acquireStartNanos);
+        try {
+            return jp.proceed();
+        } finally {
+            concurrencyLimiter.release();
+        }
+    }
+
+    /**
+     * 黑名单、频次、多级限流拦截，这几项许可不需要在方法结束后归还；之后的并发数拦截时通过 {@link #releaseRate} 归还
+     *
+     * @param wait 配置了 acquireTimeoutMillis 时超频是否排队等待，异步方法不等待
+     * @return 拦截原因和已获取的频次许可
+     */
+    private RatePermit tryAcquireRate(RateLimiterMethodDescriptor descriptor, String keyAttr, Object[] args, boolean wait) {
         // 黑名单拦截
-        if (!"all".equals(keyAttr)
-                && rateLimiterAccessInterceptor.blacklistCount() != 0
-                && null != blacklist.getIfPresent(keyAttr)
-                && blacklist.getIfPresent(keyAttr) > rateLimiterAccessInterceptor.blacklistCount()) {
-            log.info("限流-黑名单拦截(24h)：{}", keyAttr);
-            return fallbackMethodResult(jp, rateLimiterAccessInterceptor.fallbackMethod());
-        }
-
-        // 获取限流 -> Guava 缓存1分钟
-        RateLimiter rateLimiter = loginRecord.getIfPresent(keyAttr);
-        if (null == rateLimiter) {
-            rateLimiter = RateLimiter.create(rateLimiterAccessInterceptor.permitsPerSecond());
-            loginRecord.put(keyAttr, rateLimiter);
-        }
-
-        // 限流拦截
-        if (!rateLimiter.tryAcquire()) {
-            if (rateLimiterAccessInterceptor.blacklistCount() != 0) {
-                if (null == blacklist.getIfPresent(keyAttr)) {
-                    blacklist.put(keyAttr, 1L);
-                } else {
-                    blacklist.put(keyAttr, blacklist.getIfPresent(keyAttr) + 1L);
+        Blacklist blacklist = descriptor.getBlacklist();
+        if (null != blacklist && blacklist.isBlocked(keyAttr)) {
+            return RatePermit.BLACKLIST;
+        }
+
+        // 获取限流 -> 持续访问的 key 复用同一个限流器；令牌桶未配置频次时只限制并发数
+        // 开启高频访问者识别时，访问频次未接近限流频次的 key 直接放行，不创建限流器
+        RateLimiterGroup rateLimiterGroup = descriptor.getRateLimiterGroup();
+        HeavyHitterDetector heavyHitterDetector = descriptor.getHeavyHitterDetector();
+        IRateLimiter rateLimiter = null;
+        if (null != rateLimiterGroup && (null == heavyHitterDetector || heavyHitterDetector.isHeavy(keyAttr))) {
+            rateLimiter = rateLimiterGroup.get(keyAttr);
+            if (!(wait ? rateLimiter.acquire() : rateLimiter.tryAcquire())) {
+                if (null != blacklist && blacklist.recordRejection(keyAttr)) {
+                    descriptor.getMetrics().banned();
+                    rateLimiterEventRecorder.banned(descriptor.getName(), keyAttr, blacklist.getBanMillis());
                 }
+                return RatePermit.RATE_LIMIT;
             }
-            log.info("限流-超频次拦截：{}", keyAttr);
-            return fallbackMethodResult(jp, rateLimiterAccessInterceptor.fallbackMethod());
         }
 
-        // 返回结果
-        return jp.proceed();
+        // 多级限流 -> 任一级超频时归还已获取的许可
+        RateLimiterTierDescriptor[] tiers = descriptor.getTiers();
+        if (tiers.length > 0 && !tryAcquireTiers(args, tiers)) {
+            if (null != rateLimiter) {
+                rateLimiter.release();
+            }
+            return RatePermit.RATE_LIMIT;
+        }
+        return null == rateLimiter ? RatePermit.PERMITTED : new RatePermit(null, rateLimiter);
     }
 
     /**
-     * 调用用户配置的回调方法，当拦截后，返回回调结果。
+     * 并发数拦截时按获取的相反顺序归还多级限流、频次许可，被拦截的请求不占用频次
      */
-    private Object fallbackMethodResult(JoinPoint jp, String fallbackMethod) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Signature sig = jp.getSignature();
-        MethodSignature methodSignature = (MethodSignature) sig;
-        Method method = jp.getTarget().getClass().getMethod(fallbackMethod, methodSignature.getParameterTypes());
-        return method.invoke(jp.getThis(), jp.getArgs());
+    private static void releaseRate(RateLimiterMethodDescriptor descriptor, Object[] args, RatePermit ratePermit) {
+        RateLimiterTierDescriptor[] tiers = descriptor.getTiers();
+        for (int i = tiers.length - 1; i >= 0; i--) {
+            tiers[i].getRateLimiterGroup().get(tiers[i].getKeyExtractor().extract(args)).release();
+        }
+        if (null != ratePermit.rateLimiter) {
+            ratePermit.rateLimiter.release();
+        }
     }
 
     /**
-     * 实际根据自身业务调整，主要是为了获取通过某个值做拦截
+     * 依次获取各级许可，某一级超频时按相反顺序归还前面已获取的许可；成功路径上不分配对象
      */
-    public String getAttrValue(String attr, Object[] args) {
-        if (args[0] instanceof String) {
-            return args[0].toString();
-        }
-        String filedValue = null;
-        for (Object arg : args) {
-            try {
-                if (StringUtils.isNotBlank(filedValue)) {
-                    break;
+    private static boolean tryAcquireTiers(Object[] args, RateLimiterTierDescriptor[] tiers) {
+        for (int i = 0; i < tiers.length; i++) {
+            if (!tiers[i].getRateLimiterGroup().get(tiers[i].getKeyExtractor().extract(args)).tryAcquire()) {
+                for (int j = i - 1; j >= 0; j--) {
+                    tiers[j].getRateLimiterGroup().get(tiers[j].getKeyExtractor().extract(args)).release();
                 }
-                // filedValue = BeanUtils.getProperty(arg, attr);
-                // fix: 使用lombok时，uId这种字段的get方法与idea生成的get方法不同，会导致获取不到属性值，改成反射获取解决
-                filedValue = String.valueOf(this.getValueByName(arg, attr));
-            } catch (Exception e) {
-                log.error("获取路由属性值失败 attr：{}", attr, e);
+                return false;
             }
         }
-        return filedValue;
+        return true;
     }
 
     /**
-     * 获取对象的特定属性值
-     *
-     * @param item 对象
-     * @param name 属性名
-     * @return 属性值
-     * @author tang
+     * 自适应并发数拦截 -> 记录 jp.proceed() 耗时用于调整并发上限
      */
-    private Object getValueByName(Object item, String name) {
+    private Object proceedWithAdaptiveConcurrency(ProceedingJoinPoint jp, RateLimiterMethodDescriptor descriptor, String keyAttr,
+                                                  RatePermit ratePermit, long acquireStartNanos) throws Throwable {
+        AdaptiveConcurrencyLimiter limiter = descriptor.getAdaptiveConcurrencyLimiter();
+        if (!limiter.tryAcquire()) {
+            releaseRate(descriptor, jp.getArgs(), ratePermit);
+            return fallbackMethodResult(jp, descriptor, keyAttr, RateLimiterRejectReasonEnum.ADAPTIVE_CONCURRENCY, acquireStartNanos);
+        }
+        long startNanos = permitted(descriptor, acquireStartNanos);
         try {
-            Field field = getFieldByName(item, name);
-            if (field == null) {
-                return null;
+            return jp.proceed();
+        } finally {
+            limiter.release(startNanos);
+        }
+    }
+
+    /**
+     * CompletionStage 调用时获取许可，结果完成后释放；Mono、Flux 交给 {@link ReactiveRateLimiterSupport} 在订阅时处理
+     */
+    private Object proceedAsync(AsyncInvocation invocation) throws Throwable {
+        if (RateLimiterReturnTypeEnum.COMPLETION_STAGE != invocation.descriptor.getReturnType()) {
+            return ReactiveRateLimiterSupport.limit(invocation);
+        }
+        AsyncPermit permit = invocation.acquire();
+        if (permit.isRejected()) {
+            try {
+                return invocation.fallback(permit);
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
             }
-            field.setAccessible(true);
-            Object o = field.get(item);
-            field.setAccessible(false);
-            return o;
-        } catch (IllegalAccessException e) {
-            return null;
         }
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            permit.release();
+            throw e;
+        }
+        if (null == result) {
+            permit.release();
+        } else {
+            ((CompletionStage<?>) result).whenComplete((value, e) -> permit.release());
+        }
+        return result;
     }
 
     /**
-     * 根据名称获取方法，该方法同时兼顾继承类获取父类的属性
+     * 记录放行事件和限流判断耗时
      *
-     * @param item 对象
-     * @param name 属性名
-     * @return 该属性对应方法
-     * @author tang
+     * @return 当前时间（纳秒），即业务方法开始执行的时间
+     */
+    private long permitted(RateLimiterMethodDescriptor descriptor, long acquireStartNanos) {
+        long nowNanos = System.nanoTime();
+        descriptor.getMetrics().permitted(nowNanos - acquireStartNanos);
+        rateLimiterEventRecorder.permitted();
+        return nowNanos;
+    }
+
+    /**
+     * 记录拦截事件，调用用户配置的回调方法，当拦截后，返回回调结果。回调调用器启动时已预编译。
      */
-    private Field getFieldByName(Object item, String name) {
+    private Object fallbackMethodResult(JoinPoint jp, RateLimiterMethodDescriptor descriptor, String keyAttr, RateLimiterRejectReasonEnum reason, long acquireStartNanos) throws Throwable {
+        long fallbackStartNanos = System.nanoTime();
+        descriptor.getMetrics().rejected(reason, fallbackStartNanos - acquireStartNanos);
+        rateLimiterEventRecorder.rejected(descriptor.getName(), keyAttr, reason);
         try {
-            Field field;
-            try {
-                field = item.getClass().getDeclaredField(name);
-            } catch (NoSuchFieldException e) {
-                field = item.getClass().getSuperclass().getDeclaredField(name);
+            return descriptor.getFallbackInvoker().invoke(jp.getThis(), jp.getTarget(), jp.getArgs(), reason);
+        } finally {
+            descriptor.getMetrics().fallback(System.nanoTime() - fallbackStartNanos);
+        }
+    }
+
+    /**
+     * 一次异步方法调用，Mono、Flux 每次订阅各自获取一次许可
+     */
+    final class AsyncInvocation {
+
+        private final ProceedingJoinPoint jp;
+
+        private final RateLimiterMethodDescriptor descriptor;
+
+        private final String keyAttr;
+
+        private AsyncInvocation(ProceedingJoinPoint jp, RateLimiterMethodDescriptor descriptor, String keyAttr) {
+            this.jp = jp;
+            this.descriptor = descriptor;
+            this.keyAttr = keyAttr;
+        }
+
+        /**
+         * 获取全部许可，并发数许可只尝试一次，不排队等待
+         */
+        AsyncPermit acquire() {
+            long acquireStartNanos = System.nanoTime();
+            RatePermit ratePermit = tryAcquireRate(descriptor, keyAttr, jp.getArgs(), false);
+            if (ratePermit.isRejected()) {
+                return new AsyncPermit(ratePermit.reason, acquireStartNanos, null, null, 0);
+            }
+
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = descriptor.getAdaptiveConcurrencyLimiter();
+            if (null != adaptiveConcurrencyLimiter) {
+                if (!adaptiveConcurrencyLimiter.tryAcquire()) {
+                    releaseRate(descriptor, jp.getArgs(), ratePermit);
+                    return new AsyncPermit(RateLimiterRejectReasonEnum.ADAPTIVE_CONCURRENCY, acquireStartNanos, null, null, 0);
+                }
+                return new AsyncPermit(null, acquireStartNanos, null, adaptiveConcurrencyLimiter, permitted(descriptor, acquireStartNanos));
+            }
+
+            ConcurrencyLimiterGroup concurrencyLimiterGroup = descriptor.getConcurrencyLimiterGroup();
+            if (null != concurrencyLimiterGroup) {
+                ConcurrencyLimiter concurrencyLimiter = concurrencyLimiterGroup.get(keyAttr);
+                if (!concurrencyLimiter.tryAcquireNow()) {
+                    releaseRate(descriptor, jp.getArgs(), ratePermit);
+                    return new AsyncPermit(RateLimiterRejectReasonEnum.CONCURRENCY, acquireStartNanos, null, null, 0);
+                }
+                return new AsyncPermit(null, acquireStartNanos, concurrencyLimiter, null, permitted(descriptor, acquireStartNanos));
+            }
+            return new AsyncPermit(null, acquireStartNanos, null, null, permitted(descriptor, acquireStartNanos));
+        }
+
+        Object proceed() throws Throwable {
+            return jp.proceed();
+        }
+
+        Object fallback(AsyncPermit permit) throws Throwable {
+            return fallbackMethodResult(jp, descriptor, keyAttr, permit.reason, permit.acquireStartNanos);
+        }
+
+        RateLimiterReturnTypeEnum getReturnType() {
+            return descriptor.getReturnType();
+        }
+    }
+
+    /**
+     * 黑名单、频次、多级限流的结果，放行时记录获取了许可的频次限流器；只有获取了频次许可时才创建对象
+     */
+    private static final class RatePermit {
+
+        static final RatePermit BLACKLIST = new RatePermit(RateLimiterRejectReasonEnum.BLACKLIST, null);
+
+        static final RatePermit RATE_LIMIT = new RatePermit(RateLimiterRejectReasonEnum.RATE_LIMIT, null);
+
+        /** 放行，未获取频次许可：未配置频次或不是高频访问者 */
+        static final RatePermit PERMITTED = new RatePermit(null, null);
+
+        private final RateLimiterRejectReasonEnum reason;
+
+        private final IRateLimiter rateLimiter;
+
+        private RatePermit(RateLimiterRejectReasonEnum reason, IRateLimiter rateLimiter) {
+            this.reason = reason;
+            this.rateLimiter = rateLimiter;
+        }
+
+        boolean isRejected() {
+            return null != reason;
+        }
+    }
+
+    /**
+     * 异步方法的许可，拦截时只记录拦截原因
+     */
+    static final class AsyncPermit {
+
+        private final RateLimiterRejectReasonEnum reason;
+
+        private final long acquireStartNanos;
+
+        private final ConcurrencyLimiter concurrencyLimiter;
+
+        private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+        private final long startNanos;
+
+        private AsyncPermit(RateLimiterRejectReasonEnum reason, long acquireStartNanos, ConcurrencyLimiter concurrencyLimiter,
+                            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter, long startNanos) {
+            this.reason = reason;
+            this.acquireStartNanos = acquireStartNanos;
+            this.concurrencyLimiter = concurrencyLimiter;
+            this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+            this.startNanos = startNanos;
+        }
+
+        boolean isRejected() {
+            return null != reason;
+        }
+
+        /**
+         * 归还并发数许可，自适应并发按异步结果完成的耗时调整上限
+         */
+        void release() {
+            if (null != concurrencyLimiter) {
+                concurrencyLimiter.release();
+            } else if (null != adaptiveConcurrencyLimiter) {
+                adaptiveConcurrencyLimiter.release(startNanos);
             }
-            return field;
-        } catch (NoSuchFieldException e) {
-            return null;
         }
     }
 
@@ -0,0 +1,49 @@
+package com.study.tony.wrench.ratelimiter.aop;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterReturnTypeEnum;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mono、Flux 限流
+ * <p>
+ * 订阅时才获取许可、调用业务方法，终止或取消后释放许可；拦截时订阅回调方法返回的 Mono、Flux，回调异常作为错误信号下发。
+ * 单独成类，未引入 reactor-core 时不会被加载。
+ */
+final class ReactiveRateLimiterSupport {
+
+    private ReactiveRateLimiterSupport() {
+    }
+
+    static Object limit(RateLimiterAOP.AsyncInvocation invocation) {
+        if (RateLimiterReturnTypeEnum.MONO == invocation.getReturnType()) {
+            return Mono.defer(() -> Mono.from(subscribe(invocation)));
+        }
+        return Flux.defer(() -> subscribe(invocation));
+    }
+
+    private static Publisher<?> subscribe(RateLimiterAOP.AsyncInvocation invocation) {
+        RateLimiterAOP.AsyncPermit permit = invocation.acquire();
+        if (permit.isRejected()) {
+            try {
+                return nonNull(invocation.fallback(permit));
+            } catch (Throwable e) {
+                return Mono.error(e);
+            }
+        }
+        Publisher<?> publisher;
+        try {
+            publisher = nonNull(invocation.proceed());
+        } catch (Throwable e) {
+            permit.release();
+            return Mono.error(e);
+        }
+        return Flux.from(publisher).doFinally(signal -> permit.release());
+    }
+
+    private static Publisher<?> nonNull(Object result) {
+        return null == result ? Mono.empty() : (Publisher<?>) result;
+    }
+
+}
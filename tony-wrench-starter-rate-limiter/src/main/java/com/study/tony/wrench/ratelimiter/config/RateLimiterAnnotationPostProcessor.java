@@ -0,0 +1,69 @@
+package com.study.tony.wrench.ratelimiter.config;
+
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流注解扫描
+ * <p>
+ * 启动时扫描带 @RateLimiterAccessInterceptor 的方法，在所有单例创建完成、开始接收请求之前解析为限流描述；
+ * 注解配置错误、回调方法不存在或签名不匹配时启动失败，而不是等到第一次调用时才报错。
+ * <p>
+ * 解析依赖限流器注册中心等 Bean，Bean 创建过程中只记录方法，全部单例创建完成后再统一解析，避免循环依赖。
+ */
+public class RateLimiterAnnotationPostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<RateLimiterDescriptorCache> rateLimiterDescriptorCache;
+
+    private final List<Object[]> pendingMethods = new ArrayList<>();
+
+    private volatile boolean initialized;
+
+    public RateLimiterAnnotationPostProcessor(ObjectProvider<RateLimiterDescriptorCache> rateLimiterDescriptorCache) {
+        this.rateLimiterDescriptorCache = rateLimiterDescriptorCache;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> targetClass = ClassUtils.getUserClass(AopUtils.getTargetClass(bean));
+        ReflectionUtils.doWithMethods(targetClass,
+                method -> register(method, targetClass),
+                method -> method.isAnnotationPresent(RateLimiterAccessInterceptor.class));
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        RateLimiterDescriptorCache cache = rateLimiterDescriptorCache.getObject();
+        synchronized (pendingMethods) {
+            for (Object[] pending : pendingMethods) {
+                cache.register((Method) pending[0], (Class<?>) pending[1]);
+            }
+            pendingMethods.clear();
+            initialized = true;
+        }
+    }
+
+    private void register(Method method, Class<?> targetClass) {
+        // 启动完成后创建的 Bean（懒加载、原型）直接解析
+        if (initialized) {
+            rateLimiterDescriptorCache.getObject().register(method, targetClass);
+            return;
+        }
+        synchronized (pendingMethods) {
+            pendingMethods.add(new Object[]{method, targetClass});
+        }
+    }
+
+}
@@ -1,17 +1,189 @@
 package com.study.tony.wrench.ratelimiter.config;
 
 import com.study.tony.wrench.ratelimiter.aop.RateLimiterAOP;
+import com.study.tony.wrench.ratelimiter.config.properties.RateLimiterAutoProperties;
+import com.study.tony.wrench.ratelimiter.domain.cluster.IQuotaAuthority;
+import com.study.tony.wrench.ratelimiter.domain.cluster.LeasedRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.cluster.RedisQuotaAuthority;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorFactory;
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetectorFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.metrics.RateLimiterMeterBinder;
+import com.study.tony.wrench.ratelimiter.domain.rule.RateLimiterRuleManager;
+import com.study.tony.wrench.ratelimiter.domain.service.IDynamicAttributeService;
+import com.study.tony.wrench.ratelimiter.filter.RateLimiterFilter;
+import com.study.tony.wrench.ratelimiter.filter.RateLimiterFilterRule;
+import org.apache.commons.lang.StringUtils;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Configuration
+@EnableConfigurationProperties(RateLimiterAutoProperties.class)
 public class RateLimiterAutoConfig {
 
+    /**
+     * 限流器工厂，业务方可注册自己的 IRateLimiterFactory 替换，如 GuavaRateLimiterFactory
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public IRateLimiterFactory rateLimiterFactory(RateLimiterAutoProperties properties) {
+        int stripes = properties.getStripes() == 0 ? Runtime.getRuntime().availableProcessors() : properties.getStripes();
+        return new TokenBucketRateLimiterFactory(stripes);
+    }
+
+    /**
+     * 限流器注册中心，按访问过期、容量上限管理各方法的限流器
+     * 集群限流的配额中心可由业务方注册 IQuotaAuthority 替换，默认复用动态配置中心创建的 xfgWrenchRedissonClient
+     * 自适应并发上限通过动态配置中心发布和固定
+     * 容器关闭时通过 close() 关闭集群限流的续租线程池
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public RateLimiterRegistry rateLimiterRegistry(IRateLimiterFactory rateLimiterFactory,
+                                                   RateLimiterAutoProperties properties,
+                                                   ObjectProvider<IQuotaAuthority> quotaAuthority,
+                                                   ObjectProvider<IDynamicAttributeService> dynamicConfigCenterService,
+                                                   @Qualifier("xfgWrenchRedissonClient") ObjectProvider<RedissonClient> xfgWrenchRedissonClient) {
+        RateLimiterAutoProperties.Cluster cluster = properties.getCluster();
+        IQuotaAuthority authority = quotaAuthority.getIfAvailable();
+        if (null == authority) {
+            RedissonClient redissonClient = xfgWrenchRedissonClient.getIfAvailable();
+            authority = null == redissonClient ? null : new RedisQuotaAuthority(redissonClient, cluster.getKeyPrefix());
+        }
+        IRateLimiterFactory clusterRateLimiterFactory = null == authority ? null : new LeasedRateLimiterFactory(authority, cluster.getLeaseMillis(), cluster.getMaxLeaseSize());
+        RateLimiterAutoProperties.Adaptive adaptive = properties.getAdaptive();
+        AdaptiveConcurrencyLimiterFactory adaptiveConcurrencyLimiterFactory = new AdaptiveConcurrencyLimiterFactory(adaptive.getInitialLimit(),
+                adaptive.getMinLimit(), adaptive.getMaxLimit(), adaptive.getWindowMillis(), dynamicConfigCenterService.getIfAvailable());
+        return new RateLimiterRegistry(rateLimiterFactory, clusterRateLimiterFactory, adaptiveConcurrencyLimiterFactory, properties.getExpireAfterAccess(), properties.getMaximumSize());
+    }
+
+    /**
+     * 限流事件记录，可注入后查询拦截统计和最近的拦截记录
+     */
     @Bean
     @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
-    public RateLimiterAOP rateLimiterAOP() {
-        return new RateLimiterAOP();
+    public RateLimiterEventRecorder rateLimiterEventRecorder(RateLimiterAutoProperties properties) {
+        RateLimiterAutoProperties.Event event = properties.getEvent();
+        return new RateLimiterEventRecorder(event.getLogIntervalMillis(), event.getRecentCapacity());
+    }
+
+    /**
+     * 各方法的限流描述：拦截标识提取器、高频访问者识别、限流器分组、黑名单、回调调用器
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public RateLimiterDescriptorCache rateLimiterDescriptorCache(RateLimiterRegistry rateLimiterRegistry, RateLimiterAutoProperties properties) {
+        RateLimiterAutoProperties.HeavyHitter heavyHitter = properties.getHeavyHitter();
+        HeavyHitterDetectorFactory heavyHitterDetectorFactory = new HeavyHitterDetectorFactory(heavyHitter.getEpsilon(), heavyHitter.getDelta(), heavyHitter.getWindowMillis());
+        return new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(rateLimiterRegistry, new KeyExtractorFactory(), new FallbackInvokerFactory(), heavyHitterDetectorFactory));
+    }
+
+    /**
+     * 动态限流规则，配置了动态配置中心时，各方法的频次、黑名单阈值可通过配置中心主题推送调整
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public RateLimiterRuleManager rateLimiterRuleManager(RateLimiterDescriptorCache rateLimiterDescriptorCache,
+                                                         ObjectProvider<IDynamicAttributeService> dynamicConfigCenterService) {
+        IDynamicAttributeService service = dynamicConfigCenterService.getIfAvailable();
+        RateLimiterRuleManager rateLimiterRuleManager = new RateLimiterRuleManager(service);
+        if (null != service) {
+            rateLimiterDescriptorCache.subscribe(rateLimiterRuleManager::bind);
+        }
+        return rateLimiterRuleManager;
+    }
+
+    /**
+     * 启动时扫描限流注解并解析为限流描述，配置错误时启动失败；静态方法注册，避免提前初始化配置类
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public static RateLimiterAnnotationPostProcessor rateLimiterAnnotationPostProcessor(ObjectProvider<RateLimiterDescriptorCache> rateLimiterDescriptorCache) {
+        return new RateLimiterAnnotationPostProcessor(rateLimiterDescriptorCache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    public RateLimiterAOP rateLimiterAOP(RateLimiterDescriptorCache rateLimiterDescriptorCache, RateLimiterEventRecorder rateLimiterEventRecorder) {
+        return new RateLimiterAOP(rateLimiterDescriptorCache, rateLimiterEventRecorder);
+    }
+
+    /**
+     * Micrometer 指标，业务方引入 micrometer-core 后生效
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    static class RateLimiterMetricsConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RateLimiterMeterBinder rateLimiterMeterBinder(RateLimiterDescriptorCache rateLimiterDescriptorCache) {
+            return new RateLimiterMeterBinder(rateLimiterDescriptorCache);
+        }
+
+    }
+
+    /**
+     * 前置限流过滤器，Servlet 应用同时配置 tony.wrench.ratelimiter.enabled、tony.wrench.ratelimiter.filter.enabled = true 后生效；规则配置错误时启动失败
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(name = "javax.servlet.Filter")
+    @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter.filter", name = "enabled", havingValue = "true", matchIfMissing = false)
+    static class RateLimiterFilterConfig {
+
+        @Bean
+        @ConditionalOnProperty(prefix = "tony.wrench.ratelimiter", name = "enabled", havingValue = "true", matchIfMissing = false)
+        public FilterRegistrationBean<RateLimiterFilter> rateLimiterFilter(RateLimiterRegistry rateLimiterRegistry,
+                                                                           RateLimiterEventRecorder rateLimiterEventRecorder,
+                                                                           RateLimiterAutoProperties properties) {
+            RateLimiterAutoProperties.Filter filter = properties.getFilter();
+            List<RateLimiterAutoProperties.FilterRule> ruleProperties = filter.getRules();
+            RateLimiterFilterRule[] rules = new RateLimiterFilterRule[ruleProperties.size()];
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < rules.length; i++) {
+                RateLimiterAutoProperties.FilterRule rule = ruleProperties.get(i);
+                if (StringUtils.isBlank(rule.getName()) || !names.add(rule.getName())) {
+                    throw new IllegalStateException("rate limiter filter rule name is blank or duplicate：" + rule.getName());
+                }
+                try {
+                    rules[i] = new RateLimiterFilterRule(rule.getName(), rule.getUrlPatterns(), rule.getKey(),
+                            rateLimiterRegistry.createGroup("filter:" + rule.getName(), rule.getPermitsPerSecond(), rule.getMode()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException("rate limiter filter config error：" + e.getMessage(), e);
+                }
+            }
+
+            FilterRegistrationBean<RateLimiterFilter> registration = new FilterRegistrationBean<>(
+                    new RateLimiterFilter(rules, filter.getRejectStatus(), rateLimiterEventRecorder));
+            registration.setName("rateLimiterFilter");
+            registration.addUrlPatterns("/*");
+            registration.setOrder(filter.getOrder());
+            return registration;
+        }
+
     }
 
 }
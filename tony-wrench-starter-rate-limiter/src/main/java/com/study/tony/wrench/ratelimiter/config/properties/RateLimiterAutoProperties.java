@@ -0,0 +1,159 @@
+package com.study.tony.wrench.ratelimiter.config.properties;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "tony.wrench.ratelimiter", ignoreInvalidFields = true)
+public class RateLimiterAutoProperties {
+
+    /**
+     * 是否启用限流切面，默认为false
+     */
+    private boolean enabled = false;
+    /**
+     * 令牌桶分段数，默认为1不分段；配置为0时按CPU核数分段。单个热点key并发很高时开启
+     */
+    private int stripes = 1;
+    /**
+     * 限流器访问过期时间（单位：毫秒），超过该时间未被访问的key会被回收，默认为600000
+     */
+    private long expireAfterAccess = 600000;
+    /**
+     * 每个被拦截方法缓存的限流器数量上限，超过后按最近最少使用淘汰，默认为1000000
+     */
+    private long maximumSize = 1000000;
+    /**
+     * 集群限流配置，注解 mode = CLUSTER 时生效
+     */
+    private Cluster cluster = new Cluster();
+    /**
+     * 自适应并发数配置，注解 adaptive = true 时生效
+     */
+    private Adaptive adaptive = new Adaptive();
+    /**
+     * 限流事件配置，拦截日志采样和最近拦截记录
+     */
+    private Event event = new Event();
+    /**
+     * 高频访问者识别配置，注解 heavyHitter = true 时生效
+     */
+    private HeavyHitter heavyHitter = new HeavyHitter();
+    /**
+     * 前置限流过滤器配置，在 DispatcherServlet 之前按 URL 拦截超频请求
+     */
+    private Filter filter = new Filter();
+
+    @Data
+    public static class Cluster {
+        /**
+         * Redis键前缀，键格式：前缀:全限定类名#方法名(参数类型):拦截标识，默认为tony_wrench_ratelimiter
+         */
+        private String keyPrefix = "tony_wrench_ratelimiter";
+        /**
+         * 本地租约有效期（单位：毫秒），每次从配额中心领取的令牌数按本地消费速率估算，不超过该时间内的全局许可数，默认为100
+         */
+        private long leaseMillis = 100;
+        /**
+         * 单次租约的令牌数上限，默认为100
+         */
+        private int maxLeaseSize = 100;
+    }
+
+    @Data
+    public static class Adaptive {
+        /**
+         * 初始并发上限，注解未配置 maxConcurrent 时使用，默认为20
+         */
+        private int initialLimit = 20;
+        /**
+         * 并发上限的下限，默认为1
+         */
+        private int minLimit = 1;
+        /**
+         * 并发上限的上限，默认为1000
+         */
+        private int maxLimit = 1000;
+        /**
+         * 耗时统计窗口（单位：毫秒），每个窗口调整一次并发上限，默认为1000
+         */
+        private long windowMillis = 1000;
+    }
+
+    @Data
+    public static class Event {
+        /**
+         * 拦截日志的最小输出间隔（单位：毫秒），间隔内只输出一条并带上未输出的事件数，配置为0时不输出，默认为1000
+         */
+        private long logIntervalMillis = 1000;
+        /**
+         * 最近拦截记录的保留条数，向上取整为2的幂，默认为256
+         */
+        private int recentCapacity = 256;
+    }
+
+    @Data
+    public static class HeavyHitter {
+        /**
+         * 频次估计的相对误差，估计值最多偏大 epsilon * 窗口内总访问次数；每个方法占用内存 8字节 * ⌈e/epsilon⌉ * ⌈ln(1/delta)⌉，默认为0.001
+         */
+        private double epsilon = 0.001;
+        /**
+         * 频次估计误差超出 epsilon 的概率，默认为0.01
+         */
+        private double delta = 0.01;
+        /**
+         * 令牌桶限流时的计数窗口（单位：毫秒），每个窗口计数减半；滑动窗口限流时与限流窗口一致，默认为1000
+         */
+        private long windowMillis = 1000;
+    }
+
+    @Data
+    public static class Filter {
+        /**
+         * 是否启用前置限流过滤器，默认为false；需同时开启 tony.wrench.ratelimiter.enabled
+         */
+        private boolean enabled = false;
+        /**
+         * 过滤器顺序，默认为-100，在 Spring Security 等过滤器之前
+         */
+        private int order = -100;
+        /**
+         * 拦截时返回的 HTTP 状态码，默认为429
+         */
+        private int rejectStatus = 429;
+        /**
+         * 限流规则，一个请求匹配多条规则时须全部通过
+         */
+        private List<FilterRule> rules = new ArrayList<>();
+    }
+
+    @Data
+    public static class FilterRule {
+        /**
+         * 规则名称，用作限流器分组名和集群限流的Redis键
+         */
+        private String name;
+        /**
+         * URL 匹配规则，Ant 风格，不含 contextPath，如 /api/v1/raffle/**
+         */
+        private List<String> urlPatterns = new ArrayList<>();
+        /**
+         * 拦截标识：all 全部共用，ip 客户端IP，header:名称 请求头的值，默认为all
+         */
+        private String key = "all";
+        /**
+         * 每秒许可数
+         */
+        private double permitsPerSecond;
+        /**
+         * 限流模式，默认为LOCAL
+         */
+        private RateLimiterModeEnum mode = RateLimiterModeEnum.LOCAL;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.study.tony.wrench.ratelimiter.domain.blacklist;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流黑名单
+ * <p>
+ * 按拦截标识记录超频次数，次数超过阈值后在封禁时长内直接拦截：
+ * 1. 计数器是原子的 long，递增和判断一步完成，并发下不丢次数，也不产生装箱对象
+ * 2. 未被拉黑的 key 只需一次查找
+ * 3. 计数从首次超频开始，封禁时长从拉黑时刻重新计算
+ */
+public class Blacklist {
+
+    /** 超频多少次后拉黑 */
+    private volatile double threshold;
+
+    private final long banMillis;
+
+    private final LoadingCache<String, Counter> counters;
+
+    public Blacklist(double threshold, long banMillis, long maximumSize) {
+        this.threshold = threshold;
+        this.banMillis = banMillis;
+        this.counters = CacheBuilder.newBuilder()
+                .expireAfterWrite(banMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build(new CacheLoader<String, Counter>() {
+                    @Override
+                    public Counter load(String key) {
+                        return new Counter();
+                    }
+                });
+    }
+
+    /**
+     * 是否已被拉黑
+     */
+    public boolean isBlocked(String key) {
+        Counter counter = counters.getIfPresent(key);
+        return null != counter && counter.get() > threshold;
+    }
+
+    /**
+     * 记录一次超频
+     *
+     * @return true 本次超频后已被拉黑
+     */
+    public boolean recordRejection(String key) {
+        Counter counter = counters.getUnchecked(key);
+        long count = counter.incrementAndGet();
+        if (count > threshold && count - 1 <= threshold) {
+            // 刚好越过阈值，重新写入以从拉黑时刻开始计算封禁时长
+            counters.put(key, counter);
+        }
+        return count > threshold;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 调整拉黑阈值，已有计数保留
+     */
+    public void setThreshold(double threshold) {
+        if (!(threshold > 0d)) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    public long getBanMillis() {
+        return banMillis;
+    }
+
+    public long size() {
+        return counters.size();
+    }
+
+    private static final class Counter extends AtomicLong {
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+/**
+ * 集群配额中心
+ * <p>
+ * 持有各拦截标识的全局令牌桶，各实例按批领取令牌（租约）后在本地消费。
+ * 默认实现为 {@link RedisQuotaAuthority}；{@link MemoryQuotaAuthority} 用于单进程内验证租约算法。
+ */
+public interface IQuotaAuthority {
+
+    /**
+     * 领取令牌
+     *
+     * @param key              令牌桶键，格式：分组名:拦截标识
+     * @param permitsPerSecond 全局每秒许可数
+     * @param capacity         全局桶容量
+     * @param requested        申请的令牌数
+     * @return 实际领取到的令牌数，0 表示已超频
+     */
+    long acquire(String key, double permitsPerSecond, double capacity, long requested);
+
+}
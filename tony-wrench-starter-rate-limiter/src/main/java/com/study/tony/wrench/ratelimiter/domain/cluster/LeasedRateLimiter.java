@@ -0,0 +1,246 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 租约限流器
+ * <p>
+ * 1. 本地租约还有令牌且未过期时，CAS 扣减后直接放行，不访问配额中心
+ * 2. 剩余令牌降到租约的 1/4 时，异步续租，续租期间请求照常消费本地令牌
+ * 3. 租约用完或过期后同步领取，领取数量按本地实际消费速率估算，上限为租约有效期内的全局许可数，避免单个实例囤积
+ * 4. 同一时刻只有一个线程访问配额中心（与异步续租共用一个标记），其余线程按空租约直接拒绝，领取到的令牌追加到当前租约
+ * 5. 配额中心返回 0 后退避约 1/速率 的时间，期间超频请求在本地拒绝，不再访问配额中心
+ * 6. 配额中心不可用时降级为本地令牌桶，保证业务可用，一个租约有效期后再重试配额中心
+ */
+public class LeasedRateLimiter implements IRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LeasedRateLimiter.class);
+
+    private static final long ERROR_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** 剩余令牌不超过租约的 1/REFRESH_RATIO 时异步续租 */
+    private static final int REFRESH_RATIO = 4;
+
+    private final IQuotaAuthority authority;
+
+    private final String key;
+
+    private final long leaseNanos;
+
+    private final long leaseMillis;
+
+    private final int maxLeaseSize;
+
+    private final Executor executor;
+
+    /** 本地租约剩余令牌数 */
+    private final AtomicLong leasedPermits = new AtomicLong();
+
+    private volatile long leaseDeadline;
+
+    /** 当前租约开始时间及开始时的令牌数，用于估算本地消费速率 */
+    private volatile long leaseStart;
+
+    private volatile long leaseBase;
+
+    /** 本地消费速率估算值（每秒），按租约做指数加权平均 */
+    private volatile double observedRate;
+
+    private volatile long leaseSize;
+
+    private volatile long refreshThreshold;
+
+    /** 是否有线程正在访问配额中心，保证同步领取和异步续租都只有一个线程在执行 */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /** 配额中心返回 0 后的退避截止时间，期间直接拒绝 */
+    private volatile long backoffDeadline = System.nanoTime();
+
+    /** 配额中心不可用时的降级截止时间，期间使用本地令牌桶 */
+    private volatile long fallbackDeadline = System.nanoTime();
+
+    private volatile double permitsPerSecond;
+
+    /** 配额中心不可用时的本地降级 */
+    private final TokenBucketRateLimiter fallback;
+
+    private volatile long lastErrorLogTime = System.nanoTime() - ERROR_LOG_INTERVAL_NANOS;
+
+    LeasedRateLimiter(IQuotaAuthority authority, String key, double permitsPerSecond, long leaseMillis, int maxLeaseSize, Executor executor) {
+        this.authority = authority;
+        this.key = key;
+        this.leaseMillis = leaseMillis;
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        this.maxLeaseSize = maxLeaseSize;
+        this.executor = executor;
+        this.fallback = new TokenBucketRateLimiter(permitsPerSecond);
+        this.observedRate = permitsPerSecond;
+        setRate(permitsPerSecond);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        if (tryAcquireLeased()) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        if (now - fallbackDeadline < 0) {
+            return fallback.tryAcquire();
+        }
+        // 刚被配额中心拒绝，或已有线程在领取，按空租约直接拒绝
+        if (now - backoffDeadline < 0 || !refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            // 拿到标记前可能刚好有线程续租成功
+            if (tryAcquireLeased()) {
+                return true;
+            }
+
+            long granted;
+            try {
+                granted = lease();
+            } catch (RuntimeException e) {
+                logError(e);
+                fallbackDeadline = System.nanoTime() + leaseNanos;
+                return fallback.tryAcquire();
+            }
+
+            if (granted <= 0) {
+                backoffDeadline = System.nanoTime() + (long) (1_000_000_000d / Math.max(permitsPerSecond, 1e-3));
+                return false;
+            }
+            // 自己消费一个，其余追加到当前租约
+            addLease(granted - 1);
+            return true;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private boolean tryAcquireLeased() {
+        if (System.nanoTime() - leaseDeadline >= 0) {
+            return false;
+        }
+        for (long permits = leasedPermits.get(); permits > 0; permits = leasedPermits.get()) {
+            if (leasedPermits.compareAndSet(permits, permits - 1)) {
+                if (permits - 1 <= refreshThreshold) {
+                    refreshAsync();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void release() {
+        // 只归还到本地租约，租约过期后作废
+        if (System.nanoTime() - leaseDeadline < 0) {
+            leasedPermits.incrementAndGet();
+        }
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    long granted = lease();
+                    if (granted > 0) {
+                        addLease(granted);
+                    }
+                } catch (RuntimeException e) {
+                    logError(e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 续租线程繁忙，等租约用完后同步领取
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * 按上一个租约期间的消费速率调整租约大小，再到配额中心领取
+     */
+    private long lease() {
+        long now = System.nanoTime();
+        long elapsed = Math.min(now - leaseStart, leaseNanos);
+        // 首次领取还没有消费记录，按全局速率领取
+        if (leaseBase > 0 && elapsed > 0) {
+            long consumed = Math.max(0, leaseBase - Math.max(0, leasedPermits.get()));
+            double rate = (observedRate + consumed * 1_000_000_000d / elapsed) / 2;
+            observedRate = rate;
+            long maxSize = maxLeaseSize(permitsPerSecond);
+            leaseSize = Math.max(1L, Math.min(maxSize, (long) Math.ceil(rate * leaseMillis / 1000d)));
+            refreshThreshold = leaseSize / REFRESH_RATIO;
+        }
+        double permitsPerSecond = this.permitsPerSecond;
+        return authority.acquire(key, permitsPerSecond, Math.max(1d, permitsPerSecond), leaseSize);
+    }
+
+    /**
+     * 领取到的令牌追加到当前租约，当前租约已过期时作废剩余令牌后重新开始，只在持有 refreshing 标记时调用
+     */
+    private void addLease(long granted) {
+        long now = System.nanoTime();
+        long permits;
+        if (now - leaseDeadline < 0) {
+            permits = leasedPermits.addAndGet(granted);
+        } else {
+            permits = granted;
+            leasedPermits.set(permits);
+        }
+        leaseBase = permits;
+        leaseStart = now;
+        leaseDeadline = now + leaseNanos;
+    }
+
+    private long maxLeaseSize(double permitsPerSecond) {
+        return Math.max(1L, Math.min(maxLeaseSize, (long) (permitsPerSecond * leaseMillis / 1000d)));
+    }
+
+    private void logError(RuntimeException e) {
+        long now = System.nanoTime();
+        if (now - lastErrorLogTime > ERROR_LOG_INTERVAL_NANOS) {
+            lastErrorLogTime = now;
+            log.error("集群限流配额中心不可用，降级为本地限流 key：{}", key, e);
+        }
+    }
+
+    /**
+     * 当前租约大小，用于观察租约调整
+     */
+    long getLeaseSize() {
+        return leaseSize;
+    }
+
+    @Override
+    public double getRate() {
+        return permitsPerSecond;
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.leaseSize = maxLeaseSize(permitsPerSecond);
+        this.refreshThreshold = leaseSize / REFRESH_RATIO;
+        this.fallback.setRate(permitsPerSecond);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiterFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 租约限流器工厂
+ * <p>
+ * 各实例按批从 {@link IQuotaAuthority} 领取令牌，在本地消费，平摊访问配额中心的开销。
+ * 使用默认续租线程池时由工厂持有，{@link #close()} 时关闭；外部传入的线程池由调用方管理。
+ */
+public class LeasedRateLimiterFactory implements IRateLimiterFactory, AutoCloseable {
+
+    private final IQuotaAuthority authority;
+
+    private final long leaseMillis;
+
+    private final int maxLeaseSize;
+
+    private final Executor executor;
+
+    /** 工厂自己创建的续租线程池，外部传入时为 null */
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * @param authority    配额中心
+     * @param leaseMillis  租约有效期（单位：毫秒）
+     * @param maxLeaseSize 单次租约的令牌数上限
+     */
+    public LeasedRateLimiterFactory(IQuotaAuthority authority, long leaseMillis, int maxLeaseSize) {
+        this(authority, leaseMillis, maxLeaseSize, defaultExecutor(), true);
+    }
+
+    /**
+     * @param executor 异步续租线程池，队列满时拒绝即可，续租会退化为同步领取
+     */
+    public LeasedRateLimiterFactory(IQuotaAuthority authority, long leaseMillis, int maxLeaseSize, Executor executor) {
+        this(authority, leaseMillis, maxLeaseSize, executor, false);
+    }
+
+    private LeasedRateLimiterFactory(IQuotaAuthority authority, long leaseMillis, int maxLeaseSize, Executor executor, boolean owned) {
+        this.authority = authority;
+        this.leaseMillis = leaseMillis;
+        this.maxLeaseSize = maxLeaseSize;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    @Override
+    public IRateLimiter create(String name, double permitsPerSecond) {
+        return new LeasedRateLimiter(authority, name, permitsPerSecond, leaseMillis, maxLeaseSize, executor);
+    }
+
+    /**
+     * 关闭工厂自己创建的续租线程池
+     */
+    @Override
+    public void close() {
+        if (null != ownedExecutor) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 固定大小的续租线程池，空闲时线程超时回收；队列满时拒绝，续租退化为同步领取
+     */
+    private static ExecutorService defaultExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024), runnable -> {
+            Thread thread = new Thread(runnable, "tony-wrench-ratelimiter-lease-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存配额中心
+ * <p>
+ * 与 {@link RedisQuotaAuthority} 的脚本逻辑一致，用于单进程内模拟多个实例共享配额。
+ * 只在领取租约时调用，不在请求的热路径上，按桶加锁即可。
+ */
+public class MemoryQuotaAuthority implements IQuotaAuthority {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long acquire(String key, double permitsPerSecond, double capacity, long requested) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity));
+        synchronized (bucket) {
+            long now = System.nanoTime();
+            bucket.tokens = Math.min(capacity, bucket.tokens + Math.max(0, now - bucket.timestamp) * permitsPerSecond / 1_000_000_000d);
+            bucket.timestamp = now;
+            long granted = Math.min(requested, (long) bucket.tokens);
+            bucket.tokens -= granted;
+            return granted;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+
+        private long timestamp = System.nanoTime();
+
+        private Bucket(double tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+
+/**
+ * Redis 配额中心
+ * <p>
+ * 令牌桶存放在 Redis Hash 中，由 Lua 脚本原子地补充和扣减，时间取 Redis TIME，不受各实例时钟偏差影响。
+ */
+public class RedisQuotaAuthority implements IQuotaAuthority {
+
+    /**
+     * 令牌桶脚本，返回本次实际领取到的令牌数
+     * KEYS[1] 令牌桶键；ARGV[1] 每秒许可数；ARGV[2] 桶容量；ARGV[3] 申请的令牌数
+     */
+    static final String TOKEN_BUCKET_SCRIPT = """
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1])
+            local ts = tonumber(bucket[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000)
+            return granted
+            """;
+
+    private final RScript script;
+
+    private final String keyPrefix;
+
+    private volatile String scriptSha;
+
+    /**
+     * @param redissonClient Redis 客户端，复用动态配置中心的 xfgWrenchRedissonClient
+     * @param keyPrefix      Redis 键前缀
+     */
+    public RedisQuotaAuthority(RedissonClient redissonClient, String keyPrefix) {
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public long acquire(String key, double permitsPerSecond, double capacity, long requested) {
+        String redisKey = keyPrefix + ":" + key;
+        Object[] args = {String.valueOf(permitsPerSecond), String.valueOf(capacity), String.valueOf(requested)};
+        String sha = scriptSha;
+        if (null == sha) {
+            sha = scriptSha = script.scriptLoad(TOKEN_BUCKET_SCRIPT);
+        }
+        try {
+            return evalSha(sha, redisKey, args);
+        } catch (RedisException e) {
+            if (null == e.getMessage() || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            // Redis 重启或执行过 SCRIPT FLUSH 后需要重新加载
+            scriptSha = script.scriptLoad(TOKEN_BUCKET_SCRIPT);
+            return evalSha(scriptSha, redisKey, args);
+        }
+    }
+
+    private long evalSha(String sha, String key, Object[] args) {
+        Long granted = script.evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, Collections.singletonList(key), args);
+        return null == granted ? 0 : granted;
+    }
+
+}
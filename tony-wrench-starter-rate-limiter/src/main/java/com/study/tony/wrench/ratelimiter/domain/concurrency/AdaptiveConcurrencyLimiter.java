@@ -0,0 +1,180 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.AdaptiveConcurrencyStatsVO;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * 自适应并发数限流器
+ * <p>
+ * 按方法执行耗时调整并发上限（梯度算法）：
+ * 1. 每个统计窗口取耗时中位数作为短期耗时，指数加权平均得到长期耗时，作为无排队时的基线
+ * 2. 梯度 = 长期耗时 / 短期耗时，取值 [0.5, 1]：耗时上升说明下游开始排队，按比例收缩上限
+ * 3. 新上限 = 上限 * 梯度 + sqrt(上限)，平方根项用于探测更高的并发能力，再做平滑
+ * 4. 窗口内最大并发不到上限一半时，说明流量本身不高，不放大上限
+ * <p>
+ * 获取许可是一次 CAS，窗口到期后由释放许可的线程 CAS 抢到更新权后计算新上限，全程无锁。
+ * 运维固定上限（pin）后停止调整，耗时照常统计。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** 窗口内样本数不足时不调整 */
+    private static final int MIN_SAMPLES = 10;
+
+    /** 平滑系数 */
+    private static final double SMOOTHING = 0.2;
+
+    /** 长期耗时的加权平均窗口数 */
+    private static final int LONG_WINDOW = 20;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final AtomicLong nextUpdateTime;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /** 上限变化回调，用于发布到动态配置中心 */
+    private final IntConsumer limitListener;
+
+    private volatile int limit;
+
+    private volatile double estimatedLimit;
+
+    /** 运维固定的上限，0 表示自适应 */
+    private volatile int pinnedLimit;
+
+    /** 窗口内的最大并发，允许并发写入时少量失真 */
+    private volatile int maxInFlight;
+
+    private volatile long shortRttNanos;
+
+    private volatile double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, long windowMillis, IntConsumer limitListener) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("invalid adaptive concurrency limit range: [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nextUpdateTime = new AtomicLong(System.nanoTime() + windowNanos);
+        this.limitListener = limitListener;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * 获取执行许可，成功后须在 finally 中调用 {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        for (int count = inFlight.get(); ; count = inFlight.get()) {
+            if (count >= limit) {
+                rejectedCount.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(count, count + 1)) {
+                if (count + 1 > maxInFlight) {
+                    maxInFlight = count + 1;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放执行许可并记录耗时
+     *
+     * @param startNanos 获取许可时的 System.nanoTime()
+     */
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        histogram.record(now - startNanos);
+
+        long next = nextUpdateTime.get();
+        if (now - next >= 0 && nextUpdateTime.compareAndSet(next, now + windowNanos)) {
+            update();
+        }
+    }
+
+    private void update() {
+        long rtt = histogram.drain(0.5, MIN_SAMPLES);
+        int windowMaxInFlight = maxInFlight;
+        maxInFlight = inFlight.get();
+        if (rtt < 0) {
+            return;
+        }
+        // 微秒精度的直方图下界可能为 0，至少按 1 微秒计算
+        rtt = Math.max(rtt, 1000);
+        shortRttNanos = rtt;
+
+        double longRtt = longRttNanos;
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+        // 长期耗时远高于短期耗时时说明下游已恢复，加快基线回落
+        if (longRtt / rtt > 2) {
+            longRtt = longRtt * 0.95;
+        }
+        longRttNanos = longRtt;
+
+        double estimated = estimatedLimit;
+        if (windowMaxInFlight < estimated / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / rtt));
+        double newLimit = estimated * gradient + Math.sqrt(estimated);
+        estimated = estimated * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimated = Math.max(minLimit, Math.min(maxLimit, estimated));
+        estimatedLimit = estimated;
+
+        if (pinnedLimit > 0) {
+            return;
+        }
+        int previous = limit;
+        limit = (int) estimated;
+        if (previous != limit && null != limitListener) {
+            limitListener.accept(limit);
+        }
+    }
+
+    /**
+     * 固定并发上限
+     *
+     * @param pinnedLimit 固定的上限，小于等于 0 时恢复自适应
+     */
+    public void pin(int pinnedLimit) {
+        this.pinnedLimit = Math.max(0, pinnedLimit);
+        this.limit = pinnedLimit > 0 ? pinnedLimit : (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public AdaptiveConcurrencyStatsVO stats() {
+        return AdaptiveConcurrencyStatsVO.builder()
+                .name(name)
+                .limit(limit)
+                .pinnedLimit(pinnedLimit)
+                .inFlight(inFlight.get())
+                .shortRttMicros(TimeUnit.NANOSECONDS.toMicros(shortRttNanos))
+                .longRttMicros(TimeUnit.NANOSECONDS.toMicros((long) longRttNanos))
+                .rejectedCount(rejectedCount.sum())
+                .build();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import com.study.tony.wrench.ratelimiter.domain.service.IDynamicAttributeService;
+import org.apache.commons.lang.math.NumberUtils;
+
+/**
+ * 自适应并发数限流器工厂
+ * <p>
+ * 配置了动态配置中心时，每个限流器在配置中心注册两个属性：
+ * 1. rateLimiterAdaptiveLimit_全限定类名#方法名(参数类型) - 当前并发上限，上限变化时发布，供运维查看
+ * 2. rateLimiterAdaptivePin_全限定类名#方法名(参数类型) - 固定上限，默认 0 自适应；通过配置中心主题推送正数即可固定
+ */
+public class AdaptiveConcurrencyLimiterFactory {
+
+    private static final String LIMIT_ATTRIBUTE = "rateLimiterAdaptiveLimit_";
+
+    private static final String PIN_ATTRIBUTE = "rateLimiterAdaptivePin_";
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long windowMillis;
+
+    /** 动态配置中心，未配置 Redis 时为 null */
+    private final IDynamicAttributeService dynamicConfigCenterService;
+
+    public AdaptiveConcurrencyLimiterFactory() {
+        this(20, 1, 1000, 1000, null);
+    }
+
+    public AdaptiveConcurrencyLimiterFactory(int initialLimit, int minLimit, int maxLimit, long windowMillis, IDynamicAttributeService dynamicConfigCenterService) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowMillis = windowMillis;
+        this.dynamicConfigCenterService = dynamicConfigCenterService;
+    }
+
+    /**
+     * @param name         分组名称
+     * @param initialLimit 初始并发上限，小于等于 0 时使用默认值
+     */
+    public AdaptiveConcurrencyLimiter create(String name, int initialLimit) {
+        int limit = initialLimit > 0 ? initialLimit : this.initialLimit;
+        if (null == dynamicConfigCenterService) {
+            return new AdaptiveConcurrencyLimiter(name, limit, minLimit, maxLimit, windowMillis, null);
+        }
+
+        String limitAttribute = LIMIT_ATTRIBUTE + name;
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, limit, minLimit, maxLimit, windowMillis,
+                newLimit -> dynamicConfigCenterService.publishAttribute(limitAttribute, String.valueOf(newLimit)));
+        String pinnedLimit = dynamicConfigCenterService.registerAttribute(PIN_ATTRIBUTE + name, "0",
+                value -> limiter.pin(NumberUtils.toInt(value, 0)));
+        limiter.pin(NumberUtils.toInt(pinnedLimit, 0));
+        dynamicConfigCenterService.publishAttribute(limitAttribute, String.valueOf(limiter.getLimit()));
+        return limiter;
+    }
+
+}
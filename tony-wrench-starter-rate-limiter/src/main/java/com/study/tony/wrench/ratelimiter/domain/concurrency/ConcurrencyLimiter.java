@@ -0,0 +1,112 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发数限流器
+ * <p>
+ * 限制同一拦截标识同时执行的请求数，下游变慢、请求堆积时保护下游：
+ * 1. 有空闲许可时 CAS 获取后直接执行
+ * 2. 并发已满时最多 maxWaiting 个请求排队等待，超过排队上限或等待超时的请求被拦截
+ * 3. 获取成功后必须在 finally 中调用 {@link #release()}
+ */
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+
+    private final Semaphore permits;
+
+    private final int maxWaiting;
+
+    private final long waitTimeoutNanos;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final ConcurrencyLimiterGroup.Metrics metrics;
+
+    ConcurrencyLimiter(int maxConcurrent, int maxWaiting, long waitTimeoutMillis, ConcurrencyLimiterGroup.Metrics metrics) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaiting = maxWaiting;
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        this.metrics = metrics;
+    }
+
+    /**
+     * 获取执行许可，并发已满时按配置排队等待
+     *
+     * @return true 获取成功；false 排队已满、等待超时或线程被中断
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            metrics.acquired();
+            return true;
+        }
+        if (maxWaiting <= 0 || waitTimeoutNanos <= 0) {
+            metrics.rejected();
+            return false;
+        }
+
+        // 排队人数有上限，避免线程全部堵在这里
+        for (int count = waiting.get(); ; count = waiting.get()) {
+            if (count >= maxWaiting) {
+                metrics.rejected();
+                return false;
+            }
+            if (waiting.compareAndSet(count, count + 1)) {
+                break;
+            }
+        }
+
+        metrics.waiting.increment();
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+            metrics.waiting.decrement();
+            metrics.waited(System.nanoTime() - start, acquired);
+        }
+        if (acquired) {
+            metrics.acquired();
+        } else {
+            metrics.rejected();
+        }
+        return acquired;
+    }
+
+    /**
+     * 获取执行许可，并发已满时直接拦截不排队，供异步方法使用
+     *
+     * @return true 获取成功；false 并发已满
+     */
+    public boolean tryAcquireNow() {
+        if (permits.tryAcquire()) {
+            metrics.acquired();
+            return true;
+        }
+        metrics.rejected();
+        return false;
+    }
+
+    /**
+     * 释放执行许可
+     */
+    public void release() {
+        metrics.inFlight.decrement();
+        permits.release();
+    }
+
+    /**
+     * 当前执行中的请求数
+     */
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+}
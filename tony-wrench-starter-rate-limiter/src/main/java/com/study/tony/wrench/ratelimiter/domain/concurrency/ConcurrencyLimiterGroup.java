@@ -0,0 +1,118 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.ConcurrencyLimiterStatsVO;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发数限流器分组
+ * <p>
+ * 一个被拦截的方法对应一个分组，分组内按拦截标识缓存并发数限流器，按访问过期、容量上限管理；
+ * 统计按分组汇总，不区分拦截标识。
+ * <p>
+ * 执行中的请求持有限流器的引用，限流器被淘汰后仍通过弱引用找回同一个实例，
+ * 不会为同一拦截标识再创建一个满许可的限流器而放大并发；没有请求持有后随 GC 回收。
+ */
+public class ConcurrencyLimiterGroup {
+
+    private final String name;
+
+    private final Metrics metrics;
+
+    private final LoadingCache<String, ConcurrencyLimiter> limiters;
+
+    /** 仍被引用的限流器，包括已从 limiters 淘汰、但还有请求执行或排队中的 */
+    private final Cache<String, ConcurrencyLimiter> referenced = CacheBuilder.newBuilder().weakValues().build();
+
+    public ConcurrencyLimiterGroup(String name, int maxConcurrent, int maxWaiting, long waitTimeoutMillis, long expireAfterAccessMillis, long maximumSize) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.name = name;
+        this.metrics = new Metrics(maxConcurrent);
+        this.limiters = CacheBuilder.newBuilder()
+                .expireAfterAccess(expireAfterAccessMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build(new CacheLoader<String, ConcurrencyLimiter>() {
+                    @Override
+                    public ConcurrencyLimiter load(String key) {
+                        return referenced.asMap().computeIfAbsent(key, k -> new ConcurrencyLimiter(maxConcurrent, maxWaiting, waitTimeoutMillis, metrics));
+                    }
+                });
+    }
+
+    /**
+     * 获取拦截标识对应的并发数限流器，不存在时创建
+     */
+    public ConcurrencyLimiter get(String key) {
+        return limiters.getUnchecked(key);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ConcurrencyLimiterStatsVO stats() {
+        return ConcurrencyLimiterStatsVO.builder()
+                .name(name)
+                .size(limiters.size())
+                .maxConcurrent(metrics.maxConcurrent)
+                .inFlight(metrics.inFlight.sum())
+                .waiting(metrics.waiting.sum())
+                .acquiredCount(metrics.acquiredCount.sum())
+                .rejectedCount(metrics.rejectedCount.sum())
+                .waitCount(metrics.waitCount.sum())
+                .waitTimeoutCount(metrics.waitTimeoutCount.sum())
+                .waitNanos(metrics.waitNanos.sum())
+                .build();
+    }
+
+    /**
+     * 分组内各限流器共享的统计
+     */
+    static final class Metrics {
+
+        final int maxConcurrent;
+
+        final LongAdder inFlight = new LongAdder();
+
+        final LongAdder waiting = new LongAdder();
+
+        final LongAdder acquiredCount = new LongAdder();
+
+        final LongAdder rejectedCount = new LongAdder();
+
+        final LongAdder waitCount = new LongAdder();
+
+        final LongAdder waitTimeoutCount = new LongAdder();
+
+        final LongAdder waitNanos = new LongAdder();
+
+        Metrics(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        void acquired() {
+            inFlight.increment();
+            acquiredCount.increment();
+        }
+
+        void rejected() {
+            rejectedCount.increment();
+        }
+
+        void waited(long nanos, boolean acquired) {
+            waitCount.increment();
+            waitNanos.add(nanos);
+            if (!acquired) {
+                waitTimeoutCount.increment();
+            }
+        }
+    }
+
+}
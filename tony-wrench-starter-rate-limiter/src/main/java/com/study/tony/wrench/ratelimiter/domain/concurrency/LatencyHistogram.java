@@ -0,0 +1,82 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁耗时直方图
+ * <p>
+ * 按对数-线性分桶记录耗时（微秒）：小于 16 的值每个值一个桶，之后每个 2 的幂区间再等分 16 个桶，
+ * 相对误差不超过 1/16。记录只是一次 AtomicLongArray 自增，不加锁、不分配对象。
+ * <p>
+ * {@link #drain(double, long)} 读取并清零各桶，得到上一个统计窗口的分位值。
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** 覆盖到 2^40 微秒，约 12 天 */
+    private static final int BUCKET_COUNT = (40 - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        buckets.incrementAndGet(indexOf(Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * 读取并清零，返回窗口内的分位值
+     *
+     * @param quantile   分位，如 0.5
+     * @param minSamples 最少样本数，不足时返回 -1
+     * @return 分位值（纳秒）
+     */
+    public long drain(double quantile, long minSamples) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.getAndSet(i, 0);
+            total += counts[i];
+        }
+        if (total < minSamples || total == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i) * 1000;
+            }
+        }
+        return valueOf(BUCKET_COUNT - 1) * 1000;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return Math.min(BUCKET_COUNT - 1, (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket);
+    }
+
+    /**
+     * 桶的下界（微秒）
+     */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        return (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.study.tony.wrench.ratelimiter.domain.descriptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 限流描述缓存
+ * <p>
+ * 读多写少：读取是对不可变 IdentityHashMap 快照的一次查找，不加锁；写入时加锁复制后整体替换。
+ * 反射得到的 Method 每次都是新副本，按 equals 命中已解析的描述后，把当前副本也加入快照，之后都按引用命中。
+ */
+public class RateLimiterDescriptorCache {
+
+    private final RateLimiterDescriptorFactory rateLimiterDescriptorFactory;
+
+    /** 只读快照，按 Method 引用查找 */
+    private volatile Map<Method, RateLimiterMethodDescriptor> descriptors = new IdentityHashMap<>();
+
+    /** 已解析的描述，按 Method 相等查找，写入时使用 */
+    private final Map<Method, RateLimiterMethodDescriptor> resolved = new HashMap<>();
+
+    /** 新描述的订阅者，如指标绑定 */
+    private final List<Consumer<RateLimiterMethodDescriptor>> listeners = new ArrayList<>();
+
+    public RateLimiterDescriptorCache(RateLimiterDescriptorFactory rateLimiterDescriptorFactory) {
+        this.rateLimiterDescriptorFactory = rateLimiterDescriptorFactory;
+    }
+
+    /**
+     * 获取限流描述，未注册时返回 null
+     */
+    public RateLimiterMethodDescriptor get(Method method) {
+        return descriptors.get(method);
+    }
+
+    /**
+     * 注册限流描述，已解析过的方法直接复用
+     *
+     * @param method      被拦截的方法
+     * @param targetClass 目标类
+     * @throws IllegalStateException 注解配置错误
+     */
+    public RateLimiterMethodDescriptor register(Method method, Class<?> targetClass) {
+        return register(method, method, targetClass);
+    }
+
+    /**
+     * 注册限流描述，按目标类上的方法解析，按调用时拦截到的方法查找
+     * <p>
+     * JDK 动态代理拦截到的是接口方法，注解在实现类的方法上，需要按实现类的方法解析
+     *
+     * @param method         调用时拦截到的方法，如接口方法
+     * @param specificMethod 目标类上的方法，带有限流注解
+     * @param targetClass    目标类
+     * @throws IllegalStateException 注解配置错误
+     */
+    public synchronized RateLimiterMethodDescriptor register(Method method, Method specificMethod, Class<?> targetClass) {
+        RateLimiterMethodDescriptor descriptor = descriptors.get(method);
+        if (null != descriptor) {
+            return descriptor;
+        }
+        descriptor = resolved.get(specificMethod);
+        if (null == descriptor) {
+            descriptor = rateLimiterDescriptorFactory.create(specificMethod, targetClass);
+            resolved.put(specificMethod, descriptor);
+            for (Consumer<RateLimiterMethodDescriptor> listener : listeners) {
+                listener.accept(descriptor);
+            }
+        }
+        Map<Method, RateLimiterMethodDescriptor> snapshot = new IdentityHashMap<>(descriptors);
+        snapshot.put(method, descriptor);
+        descriptors = snapshot;
+        return descriptor;
+    }
+
+    /**
+     * 订阅限流描述，已解析的立即回放，之后每解析一个新方法通知一次
+     */
+    public synchronized void subscribe(Consumer<RateLimiterMethodDescriptor> listener) {
+        for (RateLimiterMethodDescriptor descriptor : resolved.values()) {
+            listener.accept(descriptor);
+        }
+        listeners.add(listener);
+    }
+
+}
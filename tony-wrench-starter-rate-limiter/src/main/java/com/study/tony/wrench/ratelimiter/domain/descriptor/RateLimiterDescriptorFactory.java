@@ -0,0 +1,176 @@
+package com.study.tony.wrench.ratelimiter.domain.descriptor;
+
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.fallback.IFallbackInvoker;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetector;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetectorFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.IKeyExtractor;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterTier;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterAlgorithmEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterReturnTypeEnum;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流描述工厂
+ * <p>
+ * 校验注解配置，编译拦截标识提取器、回调调用器，创建各限流器分组；配置错误时抛出 IllegalStateException 并指明方法。
+ */
+public class RateLimiterDescriptorFactory {
+
+    private final RateLimiterRegistry rateLimiterRegistry;
+
+    private final KeyExtractorFactory keyExtractorFactory;
+
+    private final FallbackInvokerFactory fallbackInvokerFactory;
+
+    private final HeavyHitterDetectorFactory heavyHitterDetectorFactory;
+
+    public RateLimiterDescriptorFactory(RateLimiterRegistry rateLimiterRegistry, KeyExtractorFactory keyExtractorFactory, FallbackInvokerFactory fallbackInvokerFactory) {
+        this(rateLimiterRegistry, keyExtractorFactory, fallbackInvokerFactory, new HeavyHitterDetectorFactory());
+    }
+
+    public RateLimiterDescriptorFactory(RateLimiterRegistry rateLimiterRegistry, KeyExtractorFactory keyExtractorFactory,
+                                        FallbackInvokerFactory fallbackInvokerFactory, HeavyHitterDetectorFactory heavyHitterDetectorFactory) {
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.keyExtractorFactory = keyExtractorFactory;
+        this.fallbackInvokerFactory = fallbackInvokerFactory;
+        this.heavyHitterDetectorFactory = heavyHitterDetectorFactory;
+    }
+
+    /**
+     * @param method      被拦截的方法
+     * @param targetClass 目标类
+     * @throws IllegalStateException 注解配置错误
+     */
+    public RateLimiterMethodDescriptor create(Method method, Class<?> targetClass) {
+        RateLimiterAccessInterceptor annotation = method.getAnnotation(RateLimiterAccessInterceptor.class);
+        if (null == annotation) {
+            throw new IllegalStateException("method is not annotated with @RateLimiterAccessInterceptor：" + method);
+        }
+        try {
+            return create(method, targetClass, annotation);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("annotation RateLimiter config error：" + e.getMessage() + " method：" + method, e);
+        }
+    }
+
+    private RateLimiterMethodDescriptor create(Method method, Class<?> targetClass, RateLimiterAccessInterceptor annotation) {
+        String name = name(method);
+        boolean rateLimited = RateLimiterAlgorithmEnum.TOKEN_BUCKET != annotation.algorithm() || annotation.permitsPerSecond() > 0;
+        RateLimiterReturnTypeEnum returnType = RateLimiterReturnTypeEnum.of(method.getReturnType());
+        validate(annotation, rateLimited);
+        if (RateLimiterReturnTypeEnum.SYNC != returnType && (annotation.maxWaiting() > 0 || annotation.acquireTimeoutMillis() > 0)) {
+            // 异步方法多在事件循环线程上调用，不能阻塞排队
+            throw new IllegalArgumentException("maxWaiting、acquireTimeoutMillis are not supported for async return type " + method.getReturnType().getSimpleName());
+        }
+
+        IKeyExtractor keyExtractor = keyExtractorFactory.compile(method, annotation.key());
+        IFallbackInvoker fallbackInvoker = fallbackInvokerFactory.get(method, targetClass);
+
+        Blacklist blacklist = null;
+        if (!KeyExtractorFactory.ALL.equals(annotation.key()) && annotation.blacklistCount() > 0) {
+            blacklist = rateLimiterRegistry.createBlacklist(annotation.blacklistCount(), TimeUnit.SECONDS.toMillis(annotation.blacklistSeconds()));
+        }
+
+        RateLimiterGroup rateLimiterGroup = null;
+        HeavyHitterDetector heavyHitterDetector = null;
+        if (RateLimiterAlgorithmEnum.TOKEN_BUCKET == annotation.algorithm() && rateLimited) {
+            rateLimiterGroup = rateLimiterRegistry.createGroup(name, annotation.permitsPerSecond(), annotation.mode());
+            if (annotation.heavyHitter()) {
+                heavyHitterDetector = heavyHitterDetectorFactory.create(annotation.permitsPerSecond());
+            }
+        } else if (rateLimited) {
+            long windowMillis = annotation.windowUnit().toMillis(annotation.window());
+            rateLimiterGroup = rateLimiterRegistry.createWindowGroup(name, annotation.algorithm(), annotation.windowPermits(),
+                    windowMillis, annotation.windowBuckets(), annotation.mode());
+            if (annotation.heavyHitter()) {
+                heavyHitterDetector = heavyHitterDetectorFactory.create(annotation.windowPermits(), windowMillis);
+            }
+        }
+
+        RateLimiterTier[] tierAnnotations = annotation.tiers();
+        RateLimiterTierDescriptor[] tiers = new RateLimiterTierDescriptor[tierAnnotations.length];
+        for (int i = 0; i < tierAnnotations.length; i++) {
+            RateLimiterTier tier = tierAnnotations[i];
+            tiers[i] = new RateLimiterTierDescriptor(tier.key(), keyExtractorFactory.compile(method, tier.key()),
+                    rateLimiterRegistry.createGroup(name + "@" + tier.key(), tier.permitsPerSecond(), tier.mode()));
+        }
+
+        if (annotation.acquireTimeoutMillis() > 0) {
+            rateLimiterGroup.setWaiting(annotation.acquireTimeoutMillis(), annotation.acquireMaxWaiting());
+        }
+
+        ConcurrencyLimiterGroup concurrencyLimiterGroup = null;
+        AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = null;
+        if (annotation.adaptive()) {
+            adaptiveConcurrencyLimiter = rateLimiterRegistry.createAdaptiveConcurrencyLimiter(name, annotation.maxConcurrent());
+        } else if (annotation.maxConcurrent() > 0) {
+            concurrencyLimiterGroup = rateLimiterRegistry.createConcurrencyGroup(name, annotation.maxConcurrent(), annotation.maxWaiting(), annotation.waitTimeoutMillis());
+        }
+
+        return new RateLimiterMethodDescriptor(name, returnType, keyExtractor, blacklist, heavyHitterDetector, rateLimiterGroup, tiers, concurrencyLimiterGroup, adaptiveConcurrencyLimiter, fallbackInvoker);
+    }
+
+    /**
+     * 限流分组名：全限定类名#方法名(参数类型)，重载方法、不同包下的同名类各自独立
+     * <p>
+     * 集群限流的 Redis 键、动态配置中心的规则和自适应上限配置、指标标签都使用该名称。
+     */
+    public static String name(Method method) {
+        StringJoiner parameterTypes = new StringJoiner(",", "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameterTypes.add(parameterType.getTypeName());
+        }
+        return method.getDeclaringClass().getName() + "#" + method.getName() + parameterTypes;
+    }
+
+    private static void validate(RateLimiterAccessInterceptor annotation, boolean rateLimited) {
+        if (annotation.permitsPerSecond() < 0) {
+            throw new IllegalArgumentException("permitsPerSecond must not be negative");
+        }
+        if (annotation.maxConcurrent() < 0 || annotation.maxWaiting() < 0 || annotation.waitTimeoutMillis() < 0) {
+            throw new IllegalArgumentException("maxConcurrent、maxWaiting、waitTimeoutMillis must not be negative");
+        }
+        if (annotation.maxWaiting() > 0 && annotation.waitTimeoutMillis() == 0) {
+            throw new IllegalArgumentException("maxWaiting requires waitTimeoutMillis");
+        }
+        if (annotation.acquireTimeoutMillis() < 0 || annotation.acquireMaxWaiting() < 0) {
+            throw new IllegalArgumentException("acquireTimeoutMillis、acquireMaxWaiting must not be negative");
+        }
+        if (annotation.acquireTimeoutMillis() > 0 && (annotation.acquireMaxWaiting() == 0 || !rateLimited)) {
+            throw new IllegalArgumentException("acquireTimeoutMillis requires acquireMaxWaiting and a rate limit");
+        }
+        if (annotation.blacklistCount() < 0 || (annotation.blacklistCount() > 0 && annotation.blacklistSeconds() <= 0)) {
+            throw new IllegalArgumentException("blacklistCount must not be negative and blacklistSeconds must be positive");
+        }
+        if (annotation.heavyHitter() && (!rateLimited || KeyExtractorFactory.ALL.equals(annotation.key()) || RateLimiterModeEnum.LOCAL != annotation.mode())) {
+            throw new IllegalArgumentException("heavyHitter requires a per-key local rate limit");
+        }
+        Set<String> tierKeys = new HashSet<>();
+        for (RateLimiterTier tier : annotation.tiers()) {
+            if (!(tier.permitsPerSecond() > 0)) {
+                throw new IllegalArgumentException("tier permitsPerSecond must be positive, tier key：" + tier.key());
+            }
+            if (!tierKeys.add(tier.key()) || (rateLimited && tier.key().equals(annotation.key()))) {
+                throw new IllegalArgumentException("duplicate tier key：" + tier.key());
+            }
+        }
+        if (!rateLimited && annotation.tiers().length == 0 && annotation.maxConcurrent() == 0 && !annotation.adaptive()) {
+            throw new IllegalArgumentException("no limit configured, set permitsPerSecond, algorithm, tiers, maxConcurrent or adaptive");
+        }
+    }
+
+}
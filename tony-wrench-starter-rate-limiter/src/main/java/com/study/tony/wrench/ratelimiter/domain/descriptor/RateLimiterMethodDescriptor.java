@@ -0,0 +1,113 @@
+package com.study.tony.wrench.ratelimiter.domain.descriptor;
+
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.fallback.IFallbackInvoker;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetector;
+import com.study.tony.wrench.ratelimiter.domain.key.IKeyExtractor;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.metrics.RateLimiterMethodMetrics;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterReturnTypeEnum;
+
+/**
+ * 被拦截方法的限流描述
+ * <p>
+ * 启动时按注解一次性解析，创建后不可变；切面每次调用只需查到描述，不再解析注解。
+ * 未配置的限流规则对应字段为 null。
+ */
+public final class RateLimiterMethodDescriptor {
+
+    /** 分组名称，全限定类名#方法名(参数类型) */
+    private final String name;
+
+    /** 返回类型，异步方法在完成（订阅）时释放许可 */
+    private final RateLimiterReturnTypeEnum returnType;
+
+    private final IKeyExtractor keyExtractor;
+
+    /** 黑名单，key 为 all 或未配置 blacklistCount 时为 null */
+    private final Blacklist blacklist;
+
+    /** 高频访问者识别，未开启 heavyHitter 时为 null */
+    private final HeavyHitterDetector heavyHitterDetector;
+
+    /** 频次限流器分组，令牌桶未配置 permitsPerSecond 时为 null */
+    private final RateLimiterGroup rateLimiterGroup;
+
+    /** 多级限流的其余各级，未配置时为空数组 */
+    private final RateLimiterTierDescriptor[] tiers;
+
+    /** 并发数限流器分组，未配置 maxConcurrent 或开启自适应时为 null */
+    private final ConcurrencyLimiterGroup concurrencyLimiterGroup;
+
+    /** 自适应并发数限流器，未开启自适应时为 null */
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    private final IFallbackInvoker fallbackInvoker;
+
+    private final RateLimiterMethodMetrics metrics = new RateLimiterMethodMetrics();
+
+    RateLimiterMethodDescriptor(String name, RateLimiterReturnTypeEnum returnType, IKeyExtractor keyExtractor, Blacklist blacklist, HeavyHitterDetector heavyHitterDetector, RateLimiterGroup rateLimiterGroup, RateLimiterTierDescriptor[] tiers,
+                                ConcurrencyLimiterGroup concurrencyLimiterGroup, AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                                IFallbackInvoker fallbackInvoker) {
+        this.name = name;
+        this.returnType = returnType;
+        this.keyExtractor = keyExtractor;
+        this.blacklist = blacklist;
+        this.heavyHitterDetector = heavyHitterDetector;
+        this.rateLimiterGroup = rateLimiterGroup;
+        this.tiers = tiers;
+        this.concurrencyLimiterGroup = concurrencyLimiterGroup;
+        this.adaptiveConcurrencyLimiter = adaptiveConcurrencyLimiter;
+        this.fallbackInvoker = fallbackInvoker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimiterReturnTypeEnum getReturnType() {
+        return returnType;
+    }
+
+    public IKeyExtractor getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    public Blacklist getBlacklist() {
+        return blacklist;
+    }
+
+    public HeavyHitterDetector getHeavyHitterDetector() {
+        return heavyHitterDetector;
+    }
+
+    public RateLimiterGroup getRateLimiterGroup() {
+        return rateLimiterGroup;
+    }
+
+    /**
+     * 多级限流的其余各级，返回内部数组，调用方不得修改
+     */
+    public RateLimiterTierDescriptor[] getTiers() {
+        return tiers;
+    }
+
+    public ConcurrencyLimiterGroup getConcurrencyLimiterGroup() {
+        return concurrencyLimiterGroup;
+    }
+
+    public AdaptiveConcurrencyLimiter getAdaptiveConcurrencyLimiter() {
+        return adaptiveConcurrencyLimiter;
+    }
+
+    public IFallbackInvoker getFallbackInvoker() {
+        return fallbackInvoker;
+    }
+
+    public RateLimiterMethodMetrics getMetrics() {
+        return metrics;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.study.tony.wrench.ratelimiter.domain.descriptor;
+
+import com.study.tony.wrench.ratelimiter.domain.key.IKeyExtractor;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+
+/**
+ * 多级限流中的一级，启动时按 {@link com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterTier} 解析
+ */
+public final class RateLimiterTierDescriptor {
+
+    /** 注解上配置的 key */
+    private final String key;
+
+    private final IKeyExtractor keyExtractor;
+
+    private final RateLimiterGroup rateLimiterGroup;
+
+    RateLimiterTierDescriptor(String key, IKeyExtractor keyExtractor, RateLimiterGroup rateLimiterGroup) {
+        this.key = key;
+        this.keyExtractor = keyExtractor;
+        this.rateLimiterGroup = rateLimiterGroup;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public IKeyExtractor getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    public RateLimiterGroup getRateLimiterGroup() {
+        return rateLimiterGroup;
+    }
+
+}
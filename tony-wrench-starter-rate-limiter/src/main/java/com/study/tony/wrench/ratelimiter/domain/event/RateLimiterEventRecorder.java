@@ -0,0 +1,159 @@
+package com.study.tony.wrench.ratelimiter.domain.event;
+
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterEventStatsVO;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterRejectionVO;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流事件记录
+ * <p>
+ * 代替逐条打印的拦截日志，被攻击时日志量也不会随请求量增长：
+ * 1. 放行、拦截、拉黑只累加 LongAdder 计数
+ * 2. 拦截日志按时间采样，每个间隔最多输出一条，并带上期间未输出的事件数
+ * 3. 最近的拦截记录写入定长环形缓冲区，需要排查时再查询
+ */
+public class RateLimiterEventRecorder {
+
+    private final Logger log = LoggerFactory.getLogger(RateLimiterEventRecorder.class);
+
+    private static final RateLimiterRejectReasonEnum[] REASONS = RateLimiterRejectReasonEnum.values();
+
+    private final long logIntervalMillis;
+
+    private final LongAdder permittedCount = new LongAdder();
+
+    private final LongAdder[] rejectedCounts = new LongAdder[REASONS.length];
+
+    private final LongAdder bannedCount = new LongAdder();
+
+    /** 下次允许输出日志的时间 */
+    private final AtomicLong nextLogMillis = new AtomicLong();
+
+    /** 上次输出日志后未输出的事件数 */
+    private final LongAdder suppressedCount = new LongAdder();
+
+    private final LongAdder suppressedLogCount = new LongAdder();
+
+    /** 最近的拦截记录，容量为 2 的幂，按序号取模覆盖写入 */
+    private final AtomicReferenceArray<RateLimiterRejectionVO> recentRejections;
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param logIntervalMillis 拦截日志的最小输出间隔（单位：毫秒），小于等于 0 时不输出日志
+     * @param recentCapacity    最近拦截记录的保留条数，向上取整为 2 的幂
+     */
+    public RateLimiterEventRecorder(long logIntervalMillis, int recentCapacity) {
+        if (recentCapacity <= 0 || recentCapacity > 1 << 20) {
+            throw new IllegalArgumentException("recentCapacity must be in (0, 2^20]: " + recentCapacity);
+        }
+        this.logIntervalMillis = logIntervalMillis;
+        int capacity = 1;
+        while (capacity < recentCapacity) {
+            capacity <<= 1;
+        }
+        this.recentRejections = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < rejectedCounts.length; i++) {
+            rejectedCounts[i] = new LongAdder();
+        }
+    }
+
+    public RateLimiterEventRecorder() {
+        this(1000, 256);
+    }
+
+    /**
+     * 记录一次放行
+     */
+    public void permitted() {
+        permittedCount.increment();
+    }
+
+    /**
+     * 记录一次拦截
+     *
+     * @param name   分组名称
+     * @param key    拦截标识
+     * @param reason 拦截原因
+     */
+    public void rejected(String name, String key, RateLimiterRejectReasonEnum reason) {
+        rejectedCounts[reason.ordinal()].increment();
+        long timestamp = System.currentTimeMillis();
+        recentRejections.lazySet((int) (sequence.getAndIncrement() & mask), new RateLimiterRejectionVO(timestamp, name, key, reason));
+        if (tryLog(timestamp)) {
+            log.info("限流-拦截({}) {}：{}，期间另有 {} 次事件未输出", reason, name, key, suppressedCount.sumThenReset());
+        }
+    }
+
+    /**
+     * 记录一次拉黑
+     *
+     * @param name      分组名称
+     * @param key       拦截标识
+     * @param banMillis 封禁时长（单位：毫秒）
+     */
+    public void banned(String name, String key, long banMillis) {
+        bannedCount.increment();
+        if (tryLog(System.currentTimeMillis())) {
+            log.info("限流-拉黑({}ms) {}：{}，期间另有 {} 次事件未输出", banMillis, name, key, suppressedCount.sumThenReset());
+        }
+    }
+
+    /**
+     * 最近的拦截记录，按时间倒序
+     */
+    public List<RateLimiterRejectionVO> recentRejections() {
+        long end = sequence.get();
+        long start = Math.max(0, end - recentRejections.length());
+        List<RateLimiterRejectionVO> rejections = new ArrayList<>((int) (end - start));
+        for (long i = end - 1; i >= start; i--) {
+            RateLimiterRejectionVO rejection = recentRejections.get((int) (i & mask));
+            // 序号已领取但尚未写入的槽位跳过
+            if (null != rejection) {
+                rejections.add(rejection);
+            }
+        }
+        return rejections;
+    }
+
+    public RateLimiterEventStatsVO stats() {
+        Map<RateLimiterRejectReasonEnum, Long> rejectedCountByReason = new EnumMap<>(RateLimiterRejectReasonEnum.class);
+        long rejectedCount = 0;
+        for (RateLimiterRejectReasonEnum reason : REASONS) {
+            long count = rejectedCounts[reason.ordinal()].sum();
+            rejectedCountByReason.put(reason, count);
+            rejectedCount += count;
+        }
+        return RateLimiterEventStatsVO.builder()
+                .permittedCount(permittedCount.sum())
+                .rejectedCount(rejectedCount)
+                .rejectedCountByReason(rejectedCountByReason)
+                .bannedCount(bannedCount.sum())
+                .suppressedLogCount(suppressedLogCount.sum())
+                .build();
+    }
+
+    private boolean tryLog(long now) {
+        long next = nextLogMillis.get();
+        if (logIntervalMillis > 0 && now >= next && nextLogMillis.compareAndSet(next, now + logIntervalMillis) && log.isInfoEnabled()) {
+            return true;
+        }
+        suppressedCount.increment();
+        suppressedLogCount.increment();
+        return false;
+    }
+
+}
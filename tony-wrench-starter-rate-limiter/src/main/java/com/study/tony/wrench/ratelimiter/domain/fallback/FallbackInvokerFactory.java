@@ -0,0 +1,130 @@
+package com.study.tony.wrench.ratelimiter.domain.fallback;
+
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 拦截回调调用器工厂
+ * <p>
+ * 按被拦截的方法解析 fallbackMethod，编译为 MethodHandle 后缓存，启动时由后置处理器预先编译，签名不匹配时直接启动失败。
+ * <p>
+ * 回调方法的查找规则：
+ * 1. 配置了 fallbackClass 时，在该类中查找静态方法；否则在目标类（含父类）中查找实例方法或静态方法
+ * 2. 参数与被拦截方法一致，或在末尾多一个 {@link RateLimiterRejectReasonEnum} 参数接收拦截原因，优先匹配后者
+ * 3. 返回值须能赋值给被拦截方法的返回值；被拦截方法返回 void 时不限制
+ * <p>
+ * 公开的实例方法在代理对象上调用，与原有逻辑一致；非公开的实例方法在目标对象上调用。
+ */
+public class FallbackInvokerFactory {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class, RateLimiterRejectReasonEnum.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Map<Method, IFallbackInvoker> invokers = new ConcurrentHashMap<>();
+
+    /**
+     * 获取回调调用器，不存在时编译
+     *
+     * @param method      被拦截的方法
+     * @param targetClass 目标类
+     * @throws IllegalStateException 回调方法不存在或签名不匹配
+     */
+    public IFallbackInvoker get(Method method, Class<?> targetClass) {
+        IFallbackInvoker invoker = invokers.get(method);
+        if (null == invoker) {
+            invoker = invokers.computeIfAbsent(method, m -> compile(m, targetClass));
+        }
+        return invoker;
+    }
+
+    private static IFallbackInvoker compile(Method method, Class<?> targetClass) {
+        RateLimiterAccessInterceptor annotation = method.getAnnotation(RateLimiterAccessInterceptor.class);
+        if (null == annotation || StringUtils.isBlank(annotation.fallbackMethod())) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod is null！method：" + method);
+        }
+        boolean staticOnly = void.class != annotation.fallbackClass();
+        Class<?> fallbackClass = staticOnly ? annotation.fallbackClass() : targetClass;
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Class<?>[] withReason = Arrays.copyOf(parameterTypes, parameterTypes.length + 1);
+        withReason[parameterTypes.length] = RateLimiterRejectReasonEnum.class;
+
+        boolean acceptReason = true;
+        Method fallback = ReflectionUtils.findMethod(fallbackClass, annotation.fallbackMethod(), withReason);
+        if (null == fallback) {
+            acceptReason = false;
+            fallback = ReflectionUtils.findMethod(fallbackClass, annotation.fallbackMethod(), parameterTypes);
+        }
+        if (null == fallback) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod 「" + annotation.fallbackMethod() + "」 not found in "
+                    + fallbackClass.getName() + "，参数须与被拦截方法一致，可在末尾增加 RateLimiterRejectReasonEnum 参数。method：" + method);
+        }
+
+        boolean isStatic = Modifier.isStatic(fallback.getModifiers());
+        if (staticOnly && !isStatic) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod 「" + fallback + "」 must be static when fallbackClass is set. method：" + method);
+        }
+        if (void.class != method.getReturnType() && !ClassUtils.isAssignable(method.getReturnType(), fallback.getReturnType())) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod 「" + fallback + "」 return type must be assignable to "
+                    + method.getReturnType().getName() + ". method：" + method);
+        }
+        if (!fallback.trySetAccessible()) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod 「" + fallback + "」 is not accessible. method：" + method);
+        }
+
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(fallback);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("annotation RateLimiter fallbackMethod 「" + fallback + "」 is not accessible. method：" + method, e);
+        }
+        // 统一为 (Object 接收者, Object[] 入参, 拦截原因) -> Object
+        if (isStatic) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        handle = handle.asSpreader(1, Object[].class, parameterTypes.length);
+        if (!acceptReason) {
+            handle = MethodHandles.dropArguments(handle, 2, RateLimiterRejectReasonEnum.class);
+        }
+        handle = handle.asType(INVOKER_TYPE);
+
+        boolean onProxy = !isStatic && Modifier.isPublic(fallback.getModifiers());
+        return new MethodHandleFallbackInvoker(handle, onProxy, fallback.getDeclaringClass());
+    }
+
+    private static final class MethodHandleFallbackInvoker implements IFallbackInvoker {
+
+        private final MethodHandle handle;
+
+        private final boolean onProxy;
+
+        private final Class<?> declaringClass;
+
+        private MethodHandleFallbackInvoker(MethodHandle handle, boolean onProxy, Class<?> declaringClass) {
+            this.handle = handle;
+            this.onProxy = onProxy;
+            this.declaringClass = declaringClass;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Object target, Object[] args, RateLimiterRejectReasonEnum reason) throws Throwable {
+            // JDK 动态代理不是目标类的实例，只能在目标对象上调用
+            Object receiver = onProxy && declaringClass.isInstance(proxy) ? proxy : target;
+            return (Object) handle.invokeExact(receiver, args, reason);
+        }
+    }
+
+}
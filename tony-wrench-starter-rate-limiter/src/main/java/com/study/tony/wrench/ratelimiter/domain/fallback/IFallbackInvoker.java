@@ -0,0 +1,23 @@
+package com.study.tony.wrench.ratelimiter.domain.fallback;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+
+/**
+ * 拦截回调调用器
+ * <p>
+ * 由 {@link FallbackInvokerFactory} 按被拦截的方法预编译生成，调用时不再做任何反射查找。
+ */
+public interface IFallbackInvoker {
+
+    /**
+     * 调用回调方法，回调方法抛出的异常原样抛出
+     *
+     * @param proxy  代理对象
+     * @param target 目标对象
+     * @param args   被拦截方法的入参
+     * @param reason 拦截原因
+     * @return 回调结果，回调方法返回 void 时为 null
+     */
+    Object invoke(Object proxy, Object target, Object[] args, RateLimiterRejectReasonEnum reason) throws Throwable;
+
+}
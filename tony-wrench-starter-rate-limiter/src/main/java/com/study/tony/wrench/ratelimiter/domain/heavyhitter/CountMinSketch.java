@@ -0,0 +1,95 @@
+package com.study.tony.wrench.ratelimiter.domain.heavyhitter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch 频次估计
+ * <p>
+ * 内存为 depth * width 个 long，与 key 的数量无关。估计值只会偏大不会偏小：
+ * 以 1 - delta 的概率，估计值 - 真实值 ≤ epsilon * 总次数。
+ * <p>
+ * width = ⌈e / epsilon⌉，depth = ⌈ln(1 / delta)⌉；每行的下标由 key 的两个散列值组合得到，不额外创建对象。
+ */
+public class CountMinSketch {
+
+    private final int width;
+
+    private final int depth;
+
+    private final AtomicLongArray counters;
+
+    /**
+     * @param epsilon 相对误差，如 0.001 表示误差不超过总次数的千分之一
+     * @param delta   误差超出 epsilon 的概率，如 0.01
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1): " + epsilon + ", " + delta);
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * 计数加一
+     *
+     * @return 加一后的估计值
+     */
+    public long add(String key) {
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(i * width + index(h1 + i * h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 估计值
+     */
+    public long estimate(String key) {
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counters.get(i * width + index(h1 + i * h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 所有计数减半，让估计值只反映最近一段时间的访问
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private int index(int hash) {
+        return (int) ((hash & 0xFFFFFFFFL) % width);
+    }
+
+    /**
+     * murmur3 的收尾混合，弥补 String.hashCode 低位分布不均
+     */
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.study.tony.wrench.ratelimiter.domain.heavyhitter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 高频访问者识别
+ * <p>
+ * 限流前置的一层过滤：每次访问只在固定大小的 {@link CountMinSketch} 中计数，估计频次超过阈值的 key 才交给
+ * 独立的限流器（和黑名单），其余 key 直接放行，不创建限流器对象。海量不同 key 的访问（如僵尸网络）占用的内存固定。
+ * <p>
+ * 计数每个窗口减半一次，估计值只会偏大，真实频次达到阈值的 key 一定会被识别。
+ */
+public class HeavyHitterDetector {
+
+    private final CountMinSketch sketch;
+
+    /** 估计频次超过该值时识别为高频 */
+    private volatile long threshold;
+
+    private final long windowMillis;
+
+    private final AtomicLong nextDecayMillis;
+
+    private final LongAdder heavyCount = new LongAdder();
+
+    private final LongAdder lightCount = new LongAdder();
+
+    /**
+     * @param sketch       频次估计
+     * @param threshold    估计频次超过该值时识别为高频
+     * @param windowMillis 计数减半的间隔（单位：毫秒）
+     */
+    public HeavyHitterDetector(CountMinSketch sketch, long threshold, long windowMillis) {
+        if (threshold < 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("threshold must not be negative and windowMillis must be positive");
+        }
+        this.sketch = sketch;
+        this.threshold = threshold;
+        this.windowMillis = windowMillis;
+        this.nextDecayMillis = new AtomicLong(System.currentTimeMillis() + windowMillis);
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @return true 高频访问者，需要走限流
+     */
+    public boolean isHeavy(String key) {
+        long now = System.currentTimeMillis();
+        long next = nextDecayMillis.get();
+        if (now >= next && nextDecayMillis.compareAndSet(next, now + windowMillis)) {
+            sketch.decay();
+        }
+        if (sketch.add(key) > threshold) {
+            heavyCount.increment();
+            return true;
+        }
+        lightCount.increment();
+        return false;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 限流频次调整后同步调整阈值
+     *
+     * @param windowPermits 每个 key 在窗口内的最小许可数，阈值取其一半
+     */
+    public void setWindowPermits(double windowPermits) {
+        this.threshold = (long) (windowPermits / 2);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /** 识别为高频、交给限流器的访问次数 */
+    public long getHeavyCount() {
+        return heavyCount.sum();
+    }
+
+    /** 未达到阈值、直接放行的访问次数 */
+    public long getLightCount() {
+        return lightCount.sum();
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.study.tony.wrench.ratelimiter.domain.heavyhitter;
+
+/**
+ * 高频访问者识别工厂
+ * <p>
+ * 每个方法一份 {@link CountMinSketch}，占用 8 字节 * ⌈e / epsilon⌉ * ⌈ln(1 / delta)⌉，默认参数约 100KB。
+ */
+public class HeavyHitterDetectorFactory {
+
+    private final double epsilon;
+
+    private final double delta;
+
+    private final long windowMillis;
+
+    /**
+     * @param epsilon      相对误差，估计值最多偏大 epsilon * 窗口内总次数
+     * @param delta        误差超出 epsilon 的概率
+     * @param windowMillis 计数减半的间隔（单位：毫秒）
+     */
+    public HeavyHitterDetectorFactory(double epsilon, double delta, long windowMillis) {
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.windowMillis = windowMillis;
+    }
+
+    public HeavyHitterDetectorFactory() {
+        this(0.001, 0.01, 1000);
+    }
+
+    /**
+     * 按限流频次创建，计数窗口为配置的 windowMillis
+     *
+     * @param permitsPerSecond 每个 key 的限流频次
+     */
+    public HeavyHitterDetector create(double permitsPerSecond) {
+        return create(permitsPerSecond * windowMillis / 1000, windowMillis);
+    }
+
+    /**
+     * 按窗口许可数创建，滑动窗口限流时计数窗口与限流窗口一致
+     * <p>
+     * 计数每个窗口减半，窗口交界处上个窗口的计数只剩一半；阈值取窗口许可数的一半，
+     * 保证未识别为高频的 key 在任意窗口内的访问次数都不会超过窗口许可数。
+     *
+     * @param windowPermits 每个 key 在窗口内的许可数
+     * @param windowMillis  窗口时长（单位：毫秒）
+     */
+    public HeavyHitterDetector create(double windowPermits, long windowMillis) {
+        HeavyHitterDetector detector = new HeavyHitterDetector(new CountMinSketch(epsilon, delta), 0, windowMillis);
+        detector.setWindowPermits(windowPermits);
+        return detector;
+    }
+
+}
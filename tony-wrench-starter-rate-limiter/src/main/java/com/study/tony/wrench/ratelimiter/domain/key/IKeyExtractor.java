@@ -0,0 +1,18 @@
+package com.study.tony.wrench.ratelimiter.domain.key;
+
+/**
+ * 限流拦截标识提取器
+ * <p>
+ * 由 {@link KeyExtractorFactory} 按（方法，key）预编译生成，调用时只做参数读取，不再做任何反射查找。
+ */
+public interface IKeyExtractor {
+
+    /**
+     * 从方法入参中提取拦截标识
+     *
+     * @param args 方法入参
+     * @return 拦截标识，属性值为 null 时返回 "null"
+     */
+    String extract(Object[] args);
+
+}
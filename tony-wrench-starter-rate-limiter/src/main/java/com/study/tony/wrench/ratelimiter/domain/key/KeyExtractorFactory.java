@@ -0,0 +1,287 @@
+package com.study.tony.wrench.ratelimiter.domain.key;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 拦截标识提取器工厂
+ * <p>
+ * 按（方法，key）把 key 路径一次性解析为 MethodHandle 访问链，调用时只剩直接的字段读取。
+ * <p>
+ * key 支持的写法：
+ * 1. all - 不区分请求，全部共用一个限流器
+ * 2. userId - 参数名，或参数对象上的属性（字段、getter、record 组件、Map 键）
+ * 3. order.user.id - 多级属性路径，首段可以是参数名，也可以是参数对象上的属性
+ * <p>
+ * 属性查找会沿继承链一直向上，声明类型为 Object、接口或抽象类时，按运行时类型解析并缓存。
+ * 多个参数都能解析首段属性时，具体类型的参数优先于 Map、Object、接口、抽象类参数。
+ * <p>
+ * 与原有逻辑的差异：原有逻辑只要首个参数运行时是 String 就直接作为拦截标识，不看 key；
+ * 现在先按 key 解析，解析不到时才使用声明为 String 的首个参数，都不满足时启动失败。
+ * 如 draw(String channel, OrderReq req) 配置 key = "req.userId"，原来按 channel 限流，现在按 userId 限流。
+ */
+public class KeyExtractorFactory {
+
+    /** 默认拦截标识，全部请求共用一个限流器 */
+    public static final String ALL = "all";
+
+    private static final IKeyExtractor ALL_EXTRACTOR = args -> ALL;
+
+    private static final PropertyAccessor[] EMPTY_ACCESSORS = new PropertyAccessor[0];
+
+    private static final PropertyAccessor NULL_ACCESSOR = new PropertyAccessor(Object.class) {
+        @Override
+        Object read(Object target) {
+            return null;
+        }
+    };
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 编译拦截标识提取器
+     *
+     * @param method 被拦截的方法
+     * @param key    注解上配置的 key
+     * @return 提取器，可以安全地被多线程共享
+     * @throws IllegalArgumentException key 为空，或在方法参数上解析不到
+     */
+    public IKeyExtractor compile(Method method, String key) {
+        if (StringUtils.isBlank(key)) {
+            throw new IllegalArgumentException("annotation RateLimiter key is null！method：" + method);
+        }
+        if (ALL.equals(key)) {
+            return ALL_EXTRACTOR;
+        }
+
+        String[] path = StringUtils.split(key.trim(), '.');
+        Parameter[] parameters = method.getParameters();
+
+        // 1. 首段为参数名（编译时需开启 -parameters，spring-boot-starter-parent 默认开启）
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isNamePresent() && parameters[i].getName().equals(path[0])) {
+                PropertyAccessor[] accessors = resolvePath(parameters[i].getType(), path, 1, true);
+                if (null != accessors) {
+                    return new PropertyPathKeyExtractor(key, i, accessors);
+                }
+            }
+        }
+
+        // 2. 具体类型的参数对象上能按声明类型直接解析的属性；Map 对任意键都能解析，放到下一步，避免抢先匹配
+        for (int i = 0; i < parameters.length; i++) {
+            if (isDynamicType(parameters[i].getType())) {
+                continue;
+            }
+            PropertyAccessor[] accessors = resolvePath(parameters[i].getType(), path, 0, false);
+            if (null != accessors) {
+                return new PropertyPathKeyExtractor(key, i, accessors);
+            }
+        }
+
+        // 3. Map、Object、接口、抽象类等只能在运行时确定属性的参数
+        for (int i = 0; i < parameters.length; i++) {
+            if (!isDynamicType(parameters[i].getType())) {
+                continue;
+            }
+            PropertyAccessor[] accessors = resolvePath(parameters[i].getType(), path, 0, true);
+            if (null != accessors) {
+                return new PropertyPathKeyExtractor(key, i, accessors);
+            }
+        }
+
+        // 4. 兼容原有逻辑：key 解析不到且首个参数声明为 String 时，直接作为拦截标识
+        if (parameters.length > 0 && String.class == parameters[0].getType()) {
+            return new PropertyPathKeyExtractor(key, 0, EMPTY_ACCESSORS);
+        }
+
+        throw new IllegalArgumentException("annotation RateLimiter key 「" + key + "」 not found in method parameters：" + method);
+    }
+
+    private static PropertyAccessor[] resolvePath(Class<?> type, String[] path, int from, boolean dynamicHead) {
+        List<PropertyAccessor> accessors = new ArrayList<>(path.length - from);
+        Class<?> current = type;
+        for (int i = from; i < path.length; i++) {
+            PropertyAccessor accessor = resolveAccessor(current, path[i]);
+            if (null == accessor) {
+                // 首段只在允许时才按运行时类型解析，避免 Object 参数抢先匹配
+                if ((i == from && !dynamicHead) || !isDynamicType(current)) {
+                    return null;
+                }
+                accessor = new RuntimeTypeAccessor(path[i]);
+            }
+            accessors.add(accessor);
+            current = accessor.type;
+        }
+        return accessors.toArray(EMPTY_ACCESSORS);
+    }
+
+    /**
+     * 按声明类型解析单个属性：Map 键 > record 组件 > 字段（含所有父类）> getter
+     */
+    private static PropertyAccessor resolveAccessor(Class<?> type, String name) {
+        if (Map.class.isAssignableFrom(type)) {
+            return new MapAccessor(name);
+        }
+        try {
+            if (type.isRecord()) {
+                for (RecordComponent component : type.getRecordComponents()) {
+                    if (component.getName().equals(name) && component.getAccessor().trySetAccessible()) {
+                        return new MethodHandleAccessor(component.getType(), LOOKUP.unreflect(component.getAccessor()));
+                    }
+                }
+            }
+
+            Field field = findField(type, name);
+            if (null != field && field.trySetAccessible()) {
+                return new MethodHandleAccessor(field.getType(), LOOKUP.unreflectGetter(field));
+            }
+
+            Method getter = findGetter(type, name);
+            if (null != getter && getter.trySetAccessible()) {
+                return new MethodHandleAccessor(getter.getReturnType(), LOOKUP.unreflect(getter));
+            }
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> clazz = type; null != clazz && Object.class != clazz; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Method findGetter(Class<?> type, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String candidate : new String[]{"get" + suffix, "is" + suffix, name}) {
+            try {
+                Method method = type.getMethod(candidate);
+                if (void.class != method.getReturnType() && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignore) {
+                // 继续尝试下一种命名
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDynamicType(Class<?> type) {
+        return Object.class == type || type.isInterface() || Modifier.isAbstract(type.getModifiers()) || Map.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 按参数下标和访问链读取拦截标识
+     */
+    private static final class PropertyPathKeyExtractor implements IKeyExtractor {
+
+        private final String key;
+        private final int argIndex;
+        private final PropertyAccessor[] accessors;
+
+        private PropertyPathKeyExtractor(String key, int argIndex, PropertyAccessor[] accessors) {
+            this.key = key;
+            this.argIndex = argIndex;
+            this.accessors = accessors;
+        }
+
+        @Override
+        public String extract(Object[] args) {
+            Object value = args[argIndex];
+            try {
+                for (int i = 0; i < accessors.length && null != value; i++) {
+                    value = accessors[i].read(value);
+                }
+            } catch (Throwable e) {
+                throw new IllegalStateException("获取路由属性值失败 key：" + key, e);
+            }
+            return String.valueOf(value);
+        }
+    }
+
+    private abstract static class PropertyAccessor {
+
+        /** 属性的声明类型，用于继续解析下一级路径 */
+        final Class<?> type;
+
+        PropertyAccessor(Class<?> type) {
+            this.type = type;
+        }
+
+        abstract Object read(Object target) throws Throwable;
+    }
+
+    private static final class MethodHandleAccessor extends PropertyAccessor {
+
+        private final MethodHandle handle;
+
+        private MethodHandleAccessor(Class<?> type, MethodHandle handle) {
+            super(type);
+            this.handle = handle.asType(ACCESSOR_TYPE);
+        }
+
+        @Override
+        Object read(Object target) throws Throwable {
+            return (Object) handle.invokeExact(target);
+        }
+    }
+
+    private static final class MapAccessor extends PropertyAccessor {
+
+        private final String name;
+
+        private MapAccessor(String name) {
+            super(Object.class);
+            this.name = name;
+        }
+
+        @Override
+        Object read(Object target) {
+            return ((Map<?, ?>) target).get(name);
+        }
+    }
+
+    /**
+     * 声明类型无法确定时，按运行时类型解析，每个类型只解析一次
+     */
+    private static final class RuntimeTypeAccessor extends PropertyAccessor {
+
+        private final ClassValue<PropertyAccessor> accessors;
+
+        private RuntimeTypeAccessor(String name) {
+            super(Object.class);
+            this.accessors = new ClassValue<PropertyAccessor>() {
+                @Override
+                protected PropertyAccessor computeValue(Class<?> type) {
+                    PropertyAccessor accessor = resolveAccessor(type, name);
+                    return null == accessor ? NULL_ACCESSOR : accessor;
+                }
+            };
+        }
+
+        @Override
+        Object read(Object target) throws Throwable {
+            return accessors.get(target.getClass()).read(target);
+        }
+    }
+
+}
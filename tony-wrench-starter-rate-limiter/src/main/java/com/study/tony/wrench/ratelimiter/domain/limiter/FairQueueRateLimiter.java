@@ -0,0 +1,122 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 公平排队限流器
+ * <p>
+ * 包装一个限流器，超频时不直接拦截，而是排队等待许可：
+ * 1. 等待者按到达顺序排成 FIFO 队列，只有队首尝试获取许可，有人排队时新请求不能插队
+ * 2. 排队人数有上限，超过上限或等待超时的请求被拦截
+ * 3. 等待用 LockSupport.parkNanos 挂起，不持有监视器锁，虚拟线程等待时不会占住载体线程
+ */
+public class FairQueueRateLimiter implements IRateLimiter {
+
+    /** 队首轮询许可的最小间隔，速率很高时避免空转 */
+    private static final long MIN_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final IRateLimiter delegate;
+
+    private final long waitTimeoutNanos;
+
+    private final int maxWaiting;
+
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public FairQueueRateLimiter(IRateLimiter delegate, long waitTimeoutMillis, int maxWaiting) {
+        this.delegate = delegate;
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        this.maxWaiting = maxWaiting;
+    }
+
+    /**
+     * 尝试获取一个许可，不等待；有请求在排队时直接返回 false，不插队
+     */
+    @Override
+    public boolean tryAcquire() {
+        return waiters.isEmpty() && delegate.tryAcquire();
+    }
+
+    /**
+     * 获取一个许可，超频时排队等待
+     *
+     * @return true 获取成功；false 排队已满、等待超时或线程被中断
+     */
+    @Override
+    public boolean acquire() {
+        if (tryAcquire()) {
+            return true;
+        }
+
+        // 排队人数有上限，避免线程全部堵在这里
+        for (int count = waiting.get(); ; count = waiting.get()) {
+            if (count >= maxWaiting) {
+                return false;
+            }
+            if (waiting.compareAndSet(count, count + 1)) {
+                break;
+            }
+        }
+
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        boolean acquired = false;
+        try {
+            for (; ; ) {
+                boolean head = waiters.peek() == current;
+                if (head && delegate.tryAcquire()) {
+                    acquired = true;
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || current.isInterrupted()) {
+                    break;
+                }
+                // 队首按许可间隔轮询，其余等待者等前一个离开时唤醒
+                LockSupport.parkNanos(this, head ? Math.min(remaining, pollNanos()) : remaining);
+            }
+        } finally {
+            waiters.remove(current);
+            waiting.decrementAndGet();
+            Thread next = waiters.peek();
+            if (null != next) {
+                LockSupport.unpark(next);
+            }
+        }
+        return acquired;
+    }
+
+    private long pollNanos() {
+        return Math.max(MIN_POLL_NANOS, (long) (1_000_000_000d / delegate.getRate()));
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    @Override
+    public double getRate() {
+        return delegate.getRate();
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        delegate.setRate(permitsPerSecond);
+    }
+
+    /**
+     * 当前排队等待的请求数
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+}
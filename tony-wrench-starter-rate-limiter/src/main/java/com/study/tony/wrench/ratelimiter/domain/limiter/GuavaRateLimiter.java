@@ -0,0 +1,38 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Guava RateLimiter 适配
+ * <p>
+ * 内部使用 synchronized 互斥锁，单个热点 key 在高并发下会排队，保留用于需要平滑预热语义的场景和压测对比。
+ */
+public class GuavaRateLimiter implements IRateLimiter {
+
+    private final RateLimiter rateLimiter;
+
+    public GuavaRateLimiter(double permitsPerSecond) {
+        this.rateLimiter = RateLimiter.create(permitsPerSecond);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire();
+    }
+
+    @Override
+    public void release() {
+        // Guava RateLimiter 不支持归还许可
+    }
+
+    @Override
+    public double getRate() {
+        return rateLimiter.getRate();
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        rateLimiter.setRate(permitsPerSecond);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * Guava RateLimiter 工厂
+ */
+public class GuavaRateLimiterFactory implements IRateLimiterFactory {
+
+    @Override
+    public IRateLimiter create(String name, double permitsPerSecond) {
+        return new GuavaRateLimiter(permitsPerSecond);
+    }
+
+}
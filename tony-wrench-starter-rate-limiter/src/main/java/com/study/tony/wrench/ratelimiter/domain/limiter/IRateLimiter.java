@@ -0,0 +1,45 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * 限流器
+ * <p>
+ * 每个拦截标识对应一个实例，会被大量线程并发调用，实现必须线程安全，获取许可的路径上不应加锁或分配对象。
+ */
+public interface IRateLimiter {
+
+    /**
+     * 尝试获取一个许可，不等待
+     *
+     * @return true 获取成功；false 已超频
+     */
+    boolean tryAcquire();
+
+    /**
+     * 获取一个许可，超频时按配置排队等待，见 {@link FairQueueRateLimiter}；默认不等待
+     *
+     * @return true 获取成功；false 已超频或等待超时
+     */
+    default boolean acquire() {
+        return tryAcquire();
+    }
+
+    /**
+     * 归还一个刚获取到的许可，多级限流中后续层级被拦截时回滚，不加锁
+     * <p>
+     * 只是尽力归还，无法归还的实现可以忽略
+     */
+    void release();
+
+    /**
+     * 当前速率（每秒许可数）
+     */
+    double getRate();
+
+    /**
+     * 原地调整速率，已有的限流状态保留
+     *
+     * @param permitsPerSecond 每秒许可数
+     */
+    void setRate(double permitsPerSecond);
+
+}
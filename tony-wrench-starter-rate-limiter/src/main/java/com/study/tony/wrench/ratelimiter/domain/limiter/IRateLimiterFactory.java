@@ -0,0 +1,19 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * 限流器工厂
+ * <p>
+ * 限流器的扩展点，默认实现为 {@link TokenBucketRateLimiterFactory}，业务方注册自己的 Bean 即可替换。
+ */
+public interface IRateLimiterFactory {
+
+    /**
+     * 创建限流器
+     *
+     * @param name             限流器名称，格式：分组名:拦截标识，集群限流时作为共享状态的键
+     * @param permitsPerSecond 每秒许可数
+     * @return 限流器
+     */
+    IRateLimiter create(String name, double permitsPerSecond);
+
+}
@@ -0,0 +1,147 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterStoreStatsVO;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流器分组
+ * <p>
+ * 一个被拦截的方法对应一个分组，分组内按拦截标识缓存限流器：
+ * 1. 按访问过期，持续访问的 key 一直使用同一个限流器，令牌状态不会被周期性重置
+ * 2. 按容量上限淘汰，大量不同的 userId 也不会撑爆内存
+ */
+public class RateLimiterGroup {
+
+    private final String name;
+
+    private final IRateLimiterFactory rateLimiterFactory;
+
+    private volatile double permitsPerSecond;
+
+    /** 按拦截标识单独配置的频次，未配置的 key 使用 permitsPerSecond */
+    private volatile Map<String, Double> keyPermitsPerSecond = Collections.emptyMap();
+
+    /** 超频排队等待超时（毫秒），0 不排队 */
+    private volatile long waitTimeoutMillis;
+
+    /** 每个拦截标识最多排队的请求数 */
+    private volatile int maxWaiting;
+
+    private final LoadingCache<String, IRateLimiter> limiters;
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder sizeEvictedCount = new LongAdder();
+
+    RateLimiterGroup(String name, double permitsPerSecond, IRateLimiterFactory rateLimiterFactory, long expireAfterAccessMillis, long maximumSize) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.limiters = CacheBuilder.newBuilder()
+                .expireAfterAccess(expireAfterAccessMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .<String, IRateLimiter>removalListener(notification -> {
+                    if (RemovalCause.EXPIRED == notification.getCause()) {
+                        expiredCount.increment();
+                    } else if (RemovalCause.SIZE == notification.getCause()) {
+                        sizeEvictedCount.increment();
+                    }
+                })
+                .build(new CacheLoader<String, IRateLimiter>() {
+                    @Override
+                    public IRateLimiter load(String key) {
+                        IRateLimiter rateLimiter = rateLimiterFactory.create(name + ":" + key, permitsPerSecond(key));
+                        return waitTimeoutMillis > 0 ? new FairQueueRateLimiter(rateLimiter, waitTimeoutMillis, maxWaiting) : rateLimiter;
+                    }
+                });
+    }
+
+    /**
+     * 获取拦截标识对应的限流器，不存在时创建
+     */
+    public IRateLimiter get(String key) {
+        return limiters.getUnchecked(key);
+    }
+
+    /**
+     * 开启超频排队，之后创建的限流器超频时按到达顺序排队等待许可；须在分组创建后、首次获取限流器前调用
+     *
+     * @param waitTimeoutMillis 排队等待超时（毫秒）
+     * @param maxWaiting        每个拦截标识最多排队的请求数
+     */
+    public void setWaiting(long waitTimeoutMillis, int maxWaiting) {
+        if (waitTimeoutMillis <= 0 || maxWaiting <= 0) {
+            throw new IllegalArgumentException("waitTimeoutMillis and maxWaiting must be positive: " + name);
+        }
+        this.maxWaiting = maxWaiting;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * 原地调整频次，已有限流器保留限流状态，只替换速率，缓存不重建
+     *
+     * @param permitsPerSecond    默认频次
+     * @param keyPermitsPerSecond 按拦截标识单独配置的频次，可为空
+     */
+    public void setPermitsPerSecond(double permitsPerSecond, Map<String, Double> keyPermitsPerSecond) {
+        Map<String, Double> keyRates = null == keyPermitsPerSecond ? Collections.emptyMap() : new HashMap<>(keyPermitsPerSecond);
+        if (!(permitsPerSecond > 0d)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        for (Map.Entry<String, Double> entry : keyRates.entrySet()) {
+            if (null == entry.getValue() || !(entry.getValue() > 0d)) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive, key: " + entry.getKey());
+            }
+        }
+        // 先替换参数，之后新建的限流器使用新频次；再逐个调整已有限流器
+        this.permitsPerSecond = permitsPerSecond;
+        this.keyPermitsPerSecond = keyRates;
+        for (Map.Entry<String, IRateLimiter> entry : limiters.asMap().entrySet()) {
+            double rate = permitsPerSecond(entry.getKey());
+            if (entry.getValue().getRate() != rate) {
+                entry.getValue().setRate(rate);
+            }
+        }
+    }
+
+    private double permitsPerSecond(String key) {
+        Double rate = keyPermitsPerSecond.get(key);
+        return null == rate ? permitsPerSecond : rate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public Map<String, Double> getKeyPermitsPerSecond() {
+        return Collections.unmodifiableMap(keyPermitsPerSecond);
+    }
+
+    public RateLimiterStoreStatsVO stats() {
+        CacheStats stats = limiters.stats();
+        return RateLimiterStoreStatsVO.builder()
+                .name(name)
+                .size(limiters.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .expiredCount(expiredCount.sum())
+                .sizeEvictedCount(sizeEvictedCount.sum())
+                .build();
+    }
+
+}
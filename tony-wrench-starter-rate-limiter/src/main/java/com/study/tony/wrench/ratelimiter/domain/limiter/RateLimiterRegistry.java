@@ -0,0 +1,209 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.AdaptiveConcurrencyStatsVO;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.ConcurrencyLimiterStatsVO;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterStoreStatsVO;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterAlgorithmEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 限流器注册中心
+ * <p>
+ * 统一创建和持有各方法的限流器分组、并发数限流器分组、黑名单，并汇总统计。
+ * 关闭时一并关闭集群限流器工厂持有的续租线程池。
+ */
+public class RateLimiterRegistry implements AutoCloseable {
+
+    private final IRateLimiterFactory rateLimiterFactory;
+
+    /** 集群限流器工厂，未配置 Redis 时为 null */
+    private final IRateLimiterFactory clusterRateLimiterFactory;
+
+    private final AdaptiveConcurrencyLimiterFactory adaptiveConcurrencyLimiterFactory;
+
+    /** 限流器访问过期时间（毫秒） */
+    private final long expireAfterAccessMillis;
+
+    /** 每个分组缓存的限流器数量上限 */
+    private final long maximumSize;
+
+    private final List<RateLimiterGroup> groups = new CopyOnWriteArrayList<>();
+
+    private final List<ConcurrencyLimiterGroup> concurrencyGroups = new CopyOnWriteArrayList<>();
+
+    private final List<AdaptiveConcurrencyLimiter> adaptiveConcurrencyLimiters = new CopyOnWriteArrayList<>();
+
+    public RateLimiterRegistry(IRateLimiterFactory rateLimiterFactory, long expireAfterAccessMillis, long maximumSize) {
+        this(rateLimiterFactory, null, expireAfterAccessMillis, maximumSize);
+    }
+
+    public RateLimiterRegistry(IRateLimiterFactory rateLimiterFactory, IRateLimiterFactory clusterRateLimiterFactory, long expireAfterAccessMillis, long maximumSize) {
+        this(rateLimiterFactory, clusterRateLimiterFactory, new AdaptiveConcurrencyLimiterFactory(), expireAfterAccessMillis, maximumSize);
+    }
+
+    public RateLimiterRegistry(IRateLimiterFactory rateLimiterFactory, IRateLimiterFactory clusterRateLimiterFactory,
+                               AdaptiveConcurrencyLimiterFactory adaptiveConcurrencyLimiterFactory, long expireAfterAccessMillis, long maximumSize) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.clusterRateLimiterFactory = clusterRateLimiterFactory;
+        this.adaptiveConcurrencyLimiterFactory = adaptiveConcurrencyLimiterFactory;
+        this.expireAfterAccessMillis = expireAfterAccessMillis;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * 创建单机限流器分组
+     *
+     * @param name             分组名称
+     * @param permitsPerSecond 每秒许可数
+     */
+    public RateLimiterGroup createGroup(String name, double permitsPerSecond) {
+        return createGroup(name, permitsPerSecond, RateLimiterModeEnum.LOCAL);
+    }
+
+    /**
+     * 创建限流器分组
+     *
+     * @param name             分组名称
+     * @param permitsPerSecond 每秒许可数
+     * @param mode             限流模式
+     */
+    public RateLimiterGroup createGroup(String name, double permitsPerSecond, RateLimiterModeEnum mode) {
+        if (!(permitsPerSecond > 0d)) {
+            throw new IllegalArgumentException("令牌桶限流需配置 permitsPerSecond：" + name);
+        }
+        IRateLimiterFactory factory = rateLimiterFactory;
+        if (RateLimiterModeEnum.CLUSTER == mode) {
+            if (null == clusterRateLimiterFactory) {
+                throw new IllegalStateException("集群限流需要 Redis，请配置 tony.wrench.config.register 连接信息：" + name);
+            }
+            factory = clusterRateLimiterFactory;
+        }
+        RateLimiterGroup group = new RateLimiterGroup(name, permitsPerSecond, factory, expireAfterAccessMillis, maximumSize);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * 创建滑动窗口限流器分组
+     * 分组的访问过期时间不小于窗口时长，避免 key 在窗口内被回收后计数清零
+     *
+     * @param name          分组名称
+     * @param algorithm     滑动窗口算法
+     * @param windowPermits 窗口内许可数
+     * @param windowMillis  窗口时长（毫秒）
+     * @param windowBuckets 滑动窗口计数的桶个数
+     * @param mode          限流模式，滑动窗口只支持单机
+     */
+    public RateLimiterGroup createWindowGroup(String name, RateLimiterAlgorithmEnum algorithm, long windowPermits, long windowMillis, int windowBuckets, RateLimiterModeEnum mode) {
+        if (RateLimiterModeEnum.LOCAL != mode) {
+            throw new IllegalArgumentException("滑动窗口限流只支持单机模式：" + name);
+        }
+        if (windowPermits <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("滑动窗口限流需配置 windowPermits、window：" + name);
+        }
+        IRateLimiterFactory factory;
+        switch (algorithm) {
+            case SLIDING_WINDOW_LOG:
+                factory = new SlidingWindowLogRateLimiterFactory(windowMillis);
+                break;
+            case SLIDING_WINDOW_COUNTER:
+                factory = new SlidingWindowCounterRateLimiterFactory(windowMillis, windowBuckets);
+                break;
+            default:
+                throw new IllegalArgumentException("非滑动窗口算法：" + algorithm);
+        }
+        double permitsPerSecond = windowPermits * 1000d / windowMillis;
+        RateLimiterGroup group = new RateLimiterGroup(name, permitsPerSecond, factory, Math.max(expireAfterAccessMillis, windowMillis), maximumSize);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * 创建并发数限流器分组
+     *
+     * @param name              分组名称
+     * @param maxConcurrent     每个拦截标识的最大并发数
+     * @param maxWaiting        并发已满时最多排队的请求数
+     * @param waitTimeoutMillis 排队等待超时（毫秒）
+     */
+    public ConcurrencyLimiterGroup createConcurrencyGroup(String name, int maxConcurrent, int maxWaiting, long waitTimeoutMillis) {
+        ConcurrencyLimiterGroup group = new ConcurrencyLimiterGroup(name, maxConcurrent, maxWaiting, waitTimeoutMillis, expireAfterAccessMillis, maximumSize);
+        concurrencyGroups.add(group);
+        return group;
+    }
+
+    /**
+     * 创建自适应并发数限流器，按方法统计，不区分拦截标识
+     *
+     * @param name         分组名称
+     * @param initialLimit 初始并发上限，小于等于 0 时使用配置的默认值
+     */
+    public AdaptiveConcurrencyLimiter createAdaptiveConcurrencyLimiter(String name, int initialLimit) {
+        AdaptiveConcurrencyLimiter limiter = adaptiveConcurrencyLimiterFactory.create(name, initialLimit);
+        adaptiveConcurrencyLimiters.add(limiter);
+        return limiter;
+    }
+
+    /**
+     * 创建黑名单，容量上限与限流器分组一致
+     *
+     * @param threshold 超频多少次后拉黑
+     * @param banMillis 拉黑时长（毫秒）
+     */
+    public Blacklist createBlacklist(double threshold, long banMillis) {
+        return new Blacklist(threshold, banMillis, maximumSize);
+    }
+
+    /**
+     * 各分组的存储统计
+     */
+    public List<RateLimiterStoreStatsVO> stats() {
+        List<RateLimiterStoreStatsVO> stats = new ArrayList<>(groups.size());
+        for (RateLimiterGroup group : groups) {
+            stats.add(group.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * 各分组的并发数统计
+     */
+    public List<ConcurrencyLimiterStatsVO> concurrencyStats() {
+        List<ConcurrencyLimiterStatsVO> stats = new ArrayList<>(concurrencyGroups.size());
+        for (ConcurrencyLimiterGroup group : concurrencyGroups) {
+            stats.add(group.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * 各方法的自适应并发数统计
+     */
+    public List<AdaptiveConcurrencyStatsVO> adaptiveConcurrencyStats() {
+        List<AdaptiveConcurrencyStatsVO> stats = new ArrayList<>(adaptiveConcurrencyLimiters.size());
+        for (AdaptiveConcurrencyLimiter limiter : adaptiveConcurrencyLimiters) {
+            stats.add(limiter.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (clusterRateLimiterFactory instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) clusterRateLimiterFactory).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("关闭集群限流器工厂失败", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口计数限流器
+ * <p>
+ * 窗口切分为固定个数的桶，组成环形数组，每个桶是一个 long：高 32 位为桶序号，低 32 位为计数。
+ * 桶序号过期的桶视为空桶，复用时直接覆盖，因此每个 key 的内存固定，请求过程中不分配对象。
+ * <p>
+ * 先在当前桶计数再统计窗口总数，超限时回退计数，并发下宁可少放也不超发。
+ * 窗口的滑动粒度为一个桶的时长。
+ */
+public class SlidingWindowCounterRateLimiter implements IRateLimiter {
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray buckets;
+
+    private final long windowNanos;
+
+    private final long bucketNanos;
+
+    private volatile long limit;
+
+    /**
+     * @param permitsPerSecond 平均每秒许可数，窗口内许可数 = permitsPerSecond * 窗口时长
+     * @param windowMillis     窗口时长（毫秒）
+     * @param bucketCount      桶个数
+     */
+    public SlidingWindowCounterRateLimiter(double permitsPerSecond, long windowMillis, int bucketCount) {
+        if (windowMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("windowMillis and bucketCount must be positive: " + windowMillis + ", " + bucketCount);
+        }
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.bucketNanos = Math.max(1L, windowNanos / bucketCount);
+        this.buckets = new AtomicLongArray(bucketCount);
+        setRate(permitsPerSecond);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        long now = System.nanoTime() - TokenBucketRateLimiter.BASE_NANOS;
+        long bucketSequence = now / bucketNanos;
+        int index = (int) (bucketSequence % buckets.length());
+        // 桶序号只保留低 32 位，按差值判断是否在窗口内，回绕不影响结果
+        int sequence = (int) bucketSequence;
+
+        // 1. 当前桶计数，桶序号不是当前序号时说明桶已过期，覆盖为新桶
+        long bucket;
+        for (; ; ) {
+            bucket = buckets.get(index);
+            long next = (int) (bucket >>> 32) == sequence ? bucket + 1 : ((long) sequence << 32) | 1L;
+            if (buckets.compareAndSet(index, bucket, next)) {
+                break;
+            }
+        }
+
+        // 2. 统计窗口内各桶的计数
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long value = buckets.get(i);
+            int age = sequence - (int) (value >>> 32);
+            if (age >= 0 && age < buckets.length()) {
+                count += value & COUNT_MASK;
+            }
+        }
+        if (count <= limit) {
+            return true;
+        }
+
+        // 3. 超限回退
+        release(index, sequence);
+        return false;
+    }
+
+    @Override
+    public void release() {
+        long bucketSequence = (System.nanoTime() - TokenBucketRateLimiter.BASE_NANOS) / bucketNanos;
+        release((int) (bucketSequence % buckets.length()), (int) bucketSequence);
+    }
+
+    /**
+     * 当前桶计数减一，桶已被下一个周期覆盖时无需回退
+     */
+    private void release(int index, int sequence) {
+        for (; ; ) {
+            long bucket = buckets.get(index);
+            if ((int) (bucket >>> 32) != sequence || (bucket & COUNT_MASK) == 0) {
+                return;
+            }
+            if (buckets.compareAndSet(index, bucket, bucket - 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double getRate() {
+        return limit * 1_000_000_000d / windowNanos;
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0d) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.limit = Math.max(1L, Math.min(COUNT_MASK, Math.round(permitsPerSecond * windowNanos / 1_000_000_000d)));
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * 滑动窗口计数限流器工厂
+ */
+public class SlidingWindowCounterRateLimiterFactory implements IRateLimiterFactory {
+
+    private final long windowMillis;
+
+    private final int bucketCount;
+
+    public SlidingWindowCounterRateLimiterFactory(long windowMillis, int bucketCount) {
+        this.windowMillis = windowMillis;
+        this.bucketCount = bucketCount;
+    }
+
+    @Override
+    public IRateLimiter create(String name, double permitsPerSecond) {
+        return new SlidingWindowCounterRateLimiter(permitsPerSecond, windowMillis, bucketCount);
+    }
+
+}
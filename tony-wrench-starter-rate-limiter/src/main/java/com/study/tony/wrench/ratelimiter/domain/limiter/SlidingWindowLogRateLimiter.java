@@ -0,0 +1,126 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口日志限流器
+ * <p>
+ * 用长度为窗口许可数的环形数组记录最近放行的时间，写指针上的记录就是最早的一次放行：
+ * 它已滑出窗口时才放行新请求，因此任意一个窗口内的放行数都不超过许可数。
+ * 放行时按 旧记录 → 当前时间 CAS 记录本身，写指针只是位置提示，并发请求不会重复占用同一个位置。
+ * <p>
+ * 每个 key 的内存为 8 字节 * 窗口许可数，适合许可数较小、需要精确限流的场景；
+ * 调整速率时把窗口内的放行记录复制到新日志，不会因为调整而立即多放行一整个窗口。
+ */
+public class SlidingWindowLogRateLimiter implements IRateLimiter {
+
+    private final long windowNanos;
+
+    private volatile Log log;
+
+    /**
+     * @param permitsPerSecond 平均每秒许可数，窗口内许可数 = permitsPerSecond * 窗口时长
+     * @param windowMillis     窗口时长（毫秒）
+     */
+    public SlidingWindowLogRateLimiter(double permitsPerSecond, long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive: " + windowMillis);
+        }
+        this.windowNanos = windowMillis * 1_000_000L;
+        setRate(permitsPerSecond);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        Log log = this.log;
+        // 记录值 +1，0 表示空位
+        long now = System.nanoTime() - TokenBucketRateLimiter.BASE_NANOS + 1;
+        for (; ; ) {
+            long head = log.head.get();
+            int index = (int) (head % log.timestamps.length());
+            long oldest = log.timestamps.get(index);
+            if (oldest != 0 && now - oldest < windowNanos) {
+                return false;
+            }
+            // 先 CAS 记录本身占位，同一位置只有一个请求能写入；再推进写指针，失败说明已被其他线程推进或回退
+            if (log.timestamps.compareAndSet(index, oldest, now)) {
+                log.head.compareAndSet(head, head + 1);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        // 清空最近写入的一条记录并回退写指针；期间已有新的写入时不回退，写指针轮到该位置时再使用
+        Log log = this.log;
+        long head = log.head.get();
+        if (head > 0) {
+            log.timestamps.set((int) ((head - 1) % log.timestamps.length()), 0);
+            log.head.compareAndSet(head, head - 1);
+        }
+    }
+
+    @Override
+    public double getRate() {
+        return log.timestamps.length() * 1_000_000_000d / windowNanos;
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0d) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        long limit = Math.max(1L, Math.round(permitsPerSecond * windowNanos / 1_000_000_000d));
+        if (limit > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("sliding window log too large: " + limit);
+        }
+        Log old = this.log;
+        if (null != old && old.timestamps.length() == limit) {
+            return;
+        }
+        this.log = null == old ? new Log((int) limit) : old.resize((int) limit, windowNanos);
+    }
+
+    private static final class Log {
+
+        /** 写指针，指向最早的一条记录 */
+        final AtomicLong head = new AtomicLong();
+
+        final AtomicLongArray timestamps;
+
+        Log(int limit) {
+            this.timestamps = new AtomicLongArray(limit);
+        }
+
+        /**
+         * 按新的许可数复制仍在窗口内的记录，从旧到新排列；新日志放不下时保留最新的记录，
+         * 最早的放行滑出窗口前新日志已满，窗口内的放行数不会超过新的许可数
+         * <p>
+         * 复制期间在旧日志上的并发放行不会带到新日志，最多多放行调整瞬间的并发请求数
+         */
+        Log resize(int limit, long windowNanos) {
+            long now = System.nanoTime() - TokenBucketRateLimiter.BASE_NANOS + 1;
+            int length = timestamps.length();
+            long head = this.head.get();
+            long[] live = new long[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                long timestamp = timestamps.get((int) ((head + i) % length));
+                if (timestamp != 0 && now - timestamp < windowNanos) {
+                    live[count++] = timestamp;
+                }
+            }
+
+            Log resized = new Log(limit);
+            int from = Math.max(0, count - limit);
+            for (int i = from; i < count; i++) {
+                resized.timestamps.set(i - from, live[i]);
+            }
+            resized.head.set(count - from);
+            return resized;
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * 滑动窗口日志限流器工厂
+ */
+public class SlidingWindowLogRateLimiterFactory implements IRateLimiterFactory {
+
+    private final long windowMillis;
+
+    public SlidingWindowLogRateLimiterFactory(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public IRateLimiter create(String name, double permitsPerSecond) {
+        return new SlidingWindowLogRateLimiter(permitsPerSecond, windowMillis);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段无锁令牌桶
+ * <p>
+ * 把速率和容量平均拆到多个分段上，线程优先在自己的分段上 CAS，热点 key 的竞争被分散到多个缓存行；
+ * 自己的分段取不到许可时再依次尝试其余分段，总速率不变。
+ * <p>
+ * 分段越多，单个分段的速率越低，适合每秒许可数远大于分段数的热点 key。
+ * 每秒许可数小于分段数时，每个分段至少有 1 个突发许可，合计会超出总速率，此时只使用第一个分段，相当于不分段的令牌桶。
+ */
+public class StripedTokenBucketRateLimiter implements IRateLimiter {
+
+    /** 每个分段占 8 个 long（64 字节），避免伪共享 */
+    private static final int PADDING_SHIFT = 3;
+
+    /** 分段数 - 1 */
+    private final int mask;
+
+    /** 各分段的理论到达时间，见 {@link TokenBucketRateLimiter} */
+    private final AtomicLongArray theoreticalArrivalTimes;
+
+    private volatile double permitsPerSecond;
+
+    /** 当前生效的分段和单个分段的速率，随速率调整一起替换 */
+    private volatile Stripes stripes;
+
+    /**
+     * @param permitsPerSecond 每秒许可数（全部分段合计）
+     * @param stripes          分段数，向上取整为 2 的幂
+     */
+    public StripedTokenBucketRateLimiter(double permitsPerSecond, int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.theoreticalArrivalTimes = new AtomicLongArray(size << PADDING_SHIFT);
+        setRate(permitsPerSecond);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        Stripes stripes = this.stripes;
+        long now = System.nanoTime() - TokenBucketRateLimiter.BASE_NANOS;
+        int home = probe();
+        for (int i = 0; i <= stripes.mask; i++) {
+            if (tryAcquire(((home + i) & stripes.mask) << PADDING_SHIFT, stripes.rate, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryAcquire(int index, TokenBucketRateLimiter.Rate rate, long now) {
+        for (; ; ) {
+            long tat = theoreticalArrivalTimes.get(index);
+            long start = Math.max(tat, now);
+            if (start - now > rate.toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTimes.compareAndSet(index, tat, start + rate.intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        // 归还到当前线程的分段，各分段合计的许可数不变
+        Stripes stripes = this.stripes;
+        theoreticalArrivalTimes.getAndAdd((probe() & stripes.mask) << PADDING_SHIFT, -stripes.rate.intervalNanos);
+    }
+
+    @Override
+    public double getRate() {
+        return permitsPerSecond;
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        int activeMask = permitsPerSecond < mask + 1 ? 0 : mask;
+        int activeStripes = activeMask + 1;
+        this.stripes = new Stripes(activeMask, new TokenBucketRateLimiter.Rate(permitsPerSecond / activeStripes, Math.max(1d, permitsPerSecond) / activeStripes));
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32));
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripes {
+
+        final int mask;
+
+        final TokenBucketRateLimiter.Rate rate;
+
+        Stripes(int mask, TokenBucketRateLimiter.Rate rate) {
+            this.mask = mask;
+            this.rate = rate;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * <p>
+ * 按 GCRA（通用信元速率算法）实现：令牌桶的全部状态压缩为一个 long，即「下一个许可的理论到达时间」，
+ * 获取许可就是对这个 AtomicLong 做一次 CAS，不加锁、不分配对象。
+ * <p>
+ * 桶容量为 1 秒的许可数（至少 1 个），与 Guava SmoothBursty 的默认突发量一致；新建时桶是满的。
+ */
+public class TokenBucketRateLimiter implements IRateLimiter {
+
+    /** 时间基准，保证状态值从 0 开始单调递增 */
+    static final long BASE_NANOS = System.nanoTime();
+
+    /** 理论到达时间（相对 BASE_NANOS 的纳秒数），小于当前时间说明桶内有余量 */
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong();
+
+    private volatile Rate rate;
+
+    public TokenBucketRateLimiter(double permitsPerSecond) {
+        this.rate = new Rate(permitsPerSecond, Math.max(1d, permitsPerSecond));
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        Rate rate = this.rate;
+        long now = System.nanoTime() - BASE_NANOS;
+        for (; ; ) {
+            long tat = theoreticalArrivalTime.get();
+            long start = Math.max(tat, now);
+            if (start - now > rate.toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, start + rate.intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        // 理论到达时间回退一个间隔；早于当前时间的部分在获取时按当前时间计算，不会多出许可
+        theoreticalArrivalTime.getAndAdd(-rate.intervalNanos);
+    }
+
+    @Override
+    public double getRate() {
+        return rate.permitsPerSecond;
+    }
+
+    @Override
+    public void setRate(double permitsPerSecond) {
+        this.rate = new Rate(permitsPerSecond, Math.max(1d, permitsPerSecond));
+    }
+
+    /**
+     * 速率参数，整体替换以保证单次读取的一致性
+     */
+    static final class Rate {
+
+        final double permitsPerSecond;
+
+        /** 相邻两个许可的间隔 */
+        final long intervalNanos;
+
+        /** 允许的突发量折算成的时间，(容量 - 1) * 间隔 */
+        final long toleranceNanos;
+
+        Rate(double permitsPerSecond, double capacity) {
+            if (!(permitsPerSecond > 0d) || Double.isInfinite(permitsPerSecond)) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.intervalNanos = Math.max(1L, (long) (1_000_000_000d / permitsPerSecond));
+            this.toleranceNanos = (long) ((Math.max(1d, capacity) - 1d) * intervalNanos);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+/**
+ * 令牌桶限流器工厂（默认实现）
+ */
+public class TokenBucketRateLimiterFactory implements IRateLimiterFactory {
+
+    /** 分段数，小于等于 1 时不分段 */
+    private final int stripes;
+
+    public TokenBucketRateLimiterFactory() {
+        this(1);
+    }
+
+    public TokenBucketRateLimiterFactory(int stripes) {
+        this.stripes = stripes;
+    }
+
+    @Override
+    public IRateLimiter create(String name, double permitsPerSecond) {
+        // 速率低于分段数时分段没有意义，每个分段的突发许可合计还会超出总速率
+        if (stripes <= 1 || permitsPerSecond < stripes) {
+            return new TokenBucketRateLimiter(permitsPerSecond);
+        }
+        return new StripedTokenBucketRateLimiter(permitsPerSecond, stripes);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.study.tony.wrench.ratelimiter.domain.metrics;
+
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.AdaptiveConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterMethodDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterTierDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetector;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流 Micrometer 指标
+ * <p>
+ * 指标只带 method（全限定类名#方法名(参数类型)）、reason 等取值固定的标签，不带拦截标识，大量不同用户访问也不会让指标数量膨胀。
+ * 启动完成后才解析的方法，注册时再补充绑定。
+ * <p>
+ * 1. tony.wrench.ratelimiter.permitted / rejected / banned - 放行、拦截（按原因）、拉黑次数
+ * 2. tony.wrench.ratelimiter.acquire / fallback - 限流判断耗时、回调方法耗时
+ * 3. tony.wrench.ratelimiter.keys - 当前缓存的限流器数量，即活跃的拦截标识数，多级限流的各级为 limiter=tier:key
+ * 4. tony.wrench.ratelimiter.evictions - 限流器被回收的数量，按过期、容量淘汰区分
+ * 5. tony.wrench.ratelimiter.blacklist.keys / adaptive.limit - 黑名单记录数、自适应并发上限
+ * 6. tony.wrench.ratelimiter.heavy.hitter - 高频访问者识别结果，heavy 交给限流器、light 直接放行
+ * 7. tony.wrench.ratelimiter.inflight / waiting / wait - 并发数限流的执行中、排队中的请求数，排队等待耗时
+ */
+public class RateLimiterMeterBinder implements MeterBinder {
+
+    private static final String PREFIX = "tony.wrench.ratelimiter.";
+
+    private final RateLimiterDescriptorCache rateLimiterDescriptorCache;
+
+    public RateLimiterMeterBinder(RateLimiterDescriptorCache rateLimiterDescriptorCache) {
+        this.rateLimiterDescriptorCache = rateLimiterDescriptorCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rateLimiterDescriptorCache.subscribe(descriptor -> bindTo(registry, descriptor));
+    }
+
+    private static void bindTo(MeterRegistry registry, RateLimiterMethodDescriptor descriptor) {
+        Tags tags = Tags.of("method", descriptor.getName());
+        RateLimiterMethodMetrics metrics = descriptor.getMetrics();
+
+        FunctionCounter.builder(PREFIX + "permitted", metrics, RateLimiterMethodMetrics::getPermittedCount)
+                .tags(tags).description("放行次数").register(registry);
+        for (RateLimiterRejectReasonEnum reason : RateLimiterRejectReasonEnum.values()) {
+            FunctionCounter.builder(PREFIX + "rejected", metrics, m -> m.getRejectedCount(reason))
+                    .tags(tags).tag("reason", reason.name()).description("拦截次数").register(registry);
+        }
+        FunctionTimer.builder(PREFIX + "acquire", metrics, RateLimiterMethodMetrics::getAcquireCount, RateLimiterMethodMetrics::getAcquireNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("限流判断耗时").register(registry);
+        FunctionTimer.builder(PREFIX + "fallback", metrics, RateLimiterMethodMetrics::getFallbackCount, RateLimiterMethodMetrics::getFallbackNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).description("回调方法耗时").register(registry);
+
+        RateLimiterGroup rateLimiterGroup = descriptor.getRateLimiterGroup();
+        if (null != rateLimiterGroup) {
+            Tags limiterTags = tags.and("limiter", "rate");
+            Gauge.builder(PREFIX + "keys", rateLimiterGroup, g -> g.stats().getSize())
+                    .tags(limiterTags).description("活跃的拦截标识数").register(registry);
+            FunctionCounter.builder(PREFIX + "evictions", rateLimiterGroup, g -> g.stats().getExpiredCount())
+                    .tags(limiterTags).tag("cause", "expired").description("限流器回收数量").register(registry);
+            FunctionCounter.builder(PREFIX + "evictions", rateLimiterGroup, g -> g.stats().getSizeEvictedCount())
+                    .tags(limiterTags).tag("cause", "size").description("限流器回收数量").register(registry);
+        }
+
+        for (RateLimiterTierDescriptor tier : descriptor.getTiers()) {
+            Gauge.builder(PREFIX + "keys", tier.getRateLimiterGroup(), g -> g.stats().getSize())
+                    .tags(tags).tag("limiter", "tier:" + tier.getKey()).description("活跃的拦截标识数").register(registry);
+        }
+
+        ConcurrencyLimiterGroup concurrencyLimiterGroup = descriptor.getConcurrencyLimiterGroup();
+        if (null != concurrencyLimiterGroup) {
+            Gauge.builder(PREFIX + "keys", concurrencyLimiterGroup, g -> g.stats().getSize())
+                    .tags(tags).tag("limiter", "concurrency").description("活跃的拦截标识数").register(registry);
+            Gauge.builder(PREFIX + "inflight", concurrencyLimiterGroup, g -> g.stats().getInFlight())
+                    .tags(tags).description("执行中的请求数").register(registry);
+            Gauge.builder(PREFIX + "waiting", concurrencyLimiterGroup, g -> g.stats().getWaiting())
+                    .tags(tags).description("排队中的请求数").register(registry);
+            FunctionTimer.builder(PREFIX + "wait", concurrencyLimiterGroup, g -> g.stats().getWaitCount(), g -> g.stats().getWaitNanos(), TimeUnit.NANOSECONDS)
+                    .tags(tags).description("排队等待耗时").register(registry);
+        }
+
+        HeavyHitterDetector heavyHitterDetector = descriptor.getHeavyHitterDetector();
+        if (null != heavyHitterDetector) {
+            FunctionCounter.builder(PREFIX + "heavy.hitter", heavyHitterDetector, HeavyHitterDetector::getHeavyCount)
+                    .tags(tags).tag("result", "heavy").description("高频访问者识别次数").register(registry);
+            FunctionCounter.builder(PREFIX + "heavy.hitter", heavyHitterDetector, HeavyHitterDetector::getLightCount)
+                    .tags(tags).tag("result", "light").description("高频访问者识别次数").register(registry);
+        }
+
+        Blacklist blacklist = descriptor.getBlacklist();
+        if (null != blacklist) {
+            FunctionCounter.builder(PREFIX + "banned", metrics, RateLimiterMethodMetrics::getBannedCount)
+                    .tags(tags).description("拉黑次数").register(registry);
+            Gauge.builder(PREFIX + "blacklist.keys", blacklist, Blacklist::size)
+                    .tags(tags).description("黑名单记录数").register(registry);
+        }
+
+        AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter = descriptor.getAdaptiveConcurrencyLimiter();
+        if (null != adaptiveConcurrencyLimiter) {
+            Gauge.builder(PREFIX + "adaptive.limit", adaptiveConcurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tags(tags).description("自适应并发上限").register(registry);
+        }
+    }
+
+}
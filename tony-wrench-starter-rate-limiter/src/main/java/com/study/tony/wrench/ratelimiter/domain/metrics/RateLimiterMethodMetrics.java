@@ -0,0 +1,103 @@
+package com.study.tony.wrench.ratelimiter.domain.metrics;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 被拦截方法的限流指标
+ * <p>
+ * 每个方法一份，热点路径上只累加 LongAdder，由 {@link RateLimiterMeterBinder} 在采集时读取。
+ * 不按拦截标识区分，指标数量只与方法数有关。
+ */
+public class RateLimiterMethodMetrics {
+
+    private final LongAdder permittedCount = new LongAdder();
+
+    private final LongAdder[] rejectedCounts = new LongAdder[RateLimiterRejectReasonEnum.values().length];
+
+    private final LongAdder bannedCount = new LongAdder();
+
+    private final LongAdder acquireCount = new LongAdder();
+
+    private final LongAdder acquireNanos = new LongAdder();
+
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final LongAdder fallbackNanos = new LongAdder();
+
+    public RateLimiterMethodMetrics() {
+        for (int i = 0; i < rejectedCounts.length; i++) {
+            rejectedCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次放行
+     *
+     * @param acquireNanos 限流判断耗时（纳秒）
+     */
+    public void permitted(long acquireNanos) {
+        permittedCount.increment();
+        recordAcquire(acquireNanos);
+    }
+
+    /**
+     * 记录一次拦截
+     *
+     * @param reason       拦截原因
+     * @param acquireNanos 限流判断耗时（纳秒）
+     */
+    public void rejected(RateLimiterRejectReasonEnum reason, long acquireNanos) {
+        rejectedCounts[reason.ordinal()].increment();
+        recordAcquire(acquireNanos);
+    }
+
+    public void banned() {
+        bannedCount.increment();
+    }
+
+    /**
+     * 记录一次回调方法调用
+     *
+     * @param fallbackNanos 回调耗时（纳秒）
+     */
+    public void fallback(long fallbackNanos) {
+        fallbackCount.increment();
+        this.fallbackNanos.add(fallbackNanos);
+    }
+
+    private void recordAcquire(long nanos) {
+        acquireCount.increment();
+        acquireNanos.add(nanos);
+    }
+
+    public long getPermittedCount() {
+        return permittedCount.sum();
+    }
+
+    public long getRejectedCount(RateLimiterRejectReasonEnum reason) {
+        return rejectedCounts[reason.ordinal()].sum();
+    }
+
+    public long getBannedCount() {
+        return bannedCount.sum();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    public long getAcquireNanos() {
+        return acquireNanos.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    public long getFallbackNanos() {
+        return fallbackNanos.sum();
+    }
+
+}
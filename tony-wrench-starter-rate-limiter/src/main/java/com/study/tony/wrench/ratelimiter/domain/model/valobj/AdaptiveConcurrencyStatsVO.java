@@ -0,0 +1,32 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 自适应并发数限流统计
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdaptiveConcurrencyStatsVO {
+
+    /** 分组名称，一般为 类名#方法名 */
+    private String name;
+    /** 当前并发上限 */
+    private int limit;
+    /** 运维固定的上限，0 表示自适应 */
+    private int pinnedLimit;
+    /** 当前执行中的请求数 */
+    private int inFlight;
+    /** 上一个统计窗口的耗时中位数（微秒） */
+    private long shortRttMicros;
+    /** 长期耗时基线（微秒） */
+    private long longRttMicros;
+    /** 被拦截的次数 */
+    private long rejectedCount;
+
+}
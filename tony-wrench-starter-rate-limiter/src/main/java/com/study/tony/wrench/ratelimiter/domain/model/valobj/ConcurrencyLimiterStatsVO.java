@@ -0,0 +1,38 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 并发数限流统计
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConcurrencyLimiterStatsVO {
+
+    /** 分组名称，一般为 类名#方法名 */
+    private String name;
+    /** 当前缓存的限流器数量（拦截标识数） */
+    private long size;
+    /** 每个拦截标识的最大并发数 */
+    private int maxConcurrent;
+    /** 当前执行中的请求数 */
+    private long inFlight;
+    /** 当前排队等待的请求数 */
+    private long waiting;
+    /** 获取到许可的次数 */
+    private long acquiredCount;
+    /** 被拦截的次数，含排队已满和等待超时 */
+    private long rejectedCount;
+    /** 排队等待的次数 */
+    private long waitCount;
+    /** 等待超时的次数 */
+    private long waitTimeoutCount;
+    /** 累计排队等待时间（纳秒），除以 waitCount 即平均等待时间 */
+    private long waitNanos;
+
+}
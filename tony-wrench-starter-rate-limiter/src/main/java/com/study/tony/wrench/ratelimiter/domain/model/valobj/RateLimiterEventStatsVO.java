@@ -0,0 +1,31 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 限流事件统计
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateLimiterEventStatsVO {
+
+    /** 放行的次数 */
+    private long permittedCount;
+    /** 被拦截的次数 */
+    private long rejectedCount;
+    /** 按拦截原因统计的拦截次数 */
+    private Map<RateLimiterRejectReasonEnum, Long> rejectedCountByReason;
+    /** 被拉黑的次数 */
+    private long bannedCount;
+    /** 因采样未输出日志的事件数 */
+    private long suppressedLogCount;
+
+}
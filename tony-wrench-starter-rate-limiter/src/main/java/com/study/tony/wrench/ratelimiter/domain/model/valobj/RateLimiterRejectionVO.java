@@ -0,0 +1,27 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 限流拦截记录
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateLimiterRejectionVO {
+
+    /** 拦截时间（毫秒时间戳） */
+    private long timestamp;
+    /** 分组名称，一般为 类名#方法名 */
+    private String name;
+    /** 拦截标识 */
+    private String key;
+    /** 拦截原因 */
+    private RateLimiterRejectReasonEnum reason;
+
+}
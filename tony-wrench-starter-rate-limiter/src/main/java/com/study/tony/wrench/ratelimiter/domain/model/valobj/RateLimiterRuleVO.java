@@ -0,0 +1,30 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 动态限流规则，以 JSON 存放在动态配置中心，未配置的项使用注解上的值
+ * <p>
+ * 如：{"permitsPerSecond":20,"keyPermitsPerSecond":{"vip01":100},"tierPermitsPerSecond":{"tenantId":50},"blacklistCount":5}
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateLimiterRuleVO {
+
+    /** 每个拦截标识的默认频次（每秒请求次数） */
+    private Double permitsPerSecond;
+    /** 按拦截标识单独配置的频次 */
+    private Map<String, Double> keyPermitsPerSecond;
+    /** 多级限流各级的频次，按 @RateLimiterTier 的 key */
+    private Map<String, Double> tierPermitsPerSecond;
+    /** 黑名单拦截次数，注解未开启黑名单时忽略 */
+    private Double blacklistCount;
+
+}
@@ -0,0 +1,30 @@
+package com.study.tony.wrench.ratelimiter.domain.model.valobj;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 限流器存储统计
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateLimiterStoreStatsVO {
+
+    /** 分组名称，一般为 类名#方法名 */
+    private String name;
+    /** 当前缓存的限流器数量（拦截标识数） */
+    private long size;
+    /** 命中已有限流器的次数 */
+    private long hitCount;
+    /** 新建限流器的次数 */
+    private long missCount;
+    /** 超过访问过期时间被回收的数量 */
+    private long expiredCount;
+    /** 超过容量上限被淘汰的数量 */
+    private long sizeEvictedCount;
+
+}
@@ -0,0 +1,147 @@
+package com.study.tony.wrench.ratelimiter.domain.rule;
+
+import com.alibaba.fastjson.JSON;
+import com.study.tony.wrench.ratelimiter.domain.blacklist.Blacklist;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterMethodDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterTierDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.heavyhitter.HeavyHitterDetector;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterRuleVO;
+import com.study.tony.wrench.ratelimiter.domain.service.IDynamicAttributeService;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 动态限流规则
+ * <p>
+ * 每个限流方法在动态配置中心注册属性 rateLimiterRule_全限定类名#方法名(参数类型)，值为 {@link RateLimiterRuleVO} 的 JSON，默认 {} 即使用注解上的值。
+ * 通过配置中心主题推送新规则后，已有限流器原地调整速率，限流状态和缓存都保留；推送 {} 恢复注解上的值。
+ * <p>
+ * 规则格式错误时整条忽略，保留当前规则。
+ */
+public class RateLimiterRuleManager {
+
+    private final Logger log = LoggerFactory.getLogger(RateLimiterRuleManager.class);
+
+    public static final String RULE_ATTRIBUTE = "rateLimiterRule_";
+
+    private static final String EMPTY_RULE = "{}";
+
+    private final IDynamicAttributeService dynamicConfigCenterService;
+
+    public RateLimiterRuleManager(IDynamicAttributeService dynamicConfigCenterService) {
+        this.dynamicConfigCenterService = dynamicConfigCenterService;
+    }
+
+    /**
+     * 注册到动态配置中心并应用当前规则，未配置频次限流的方法忽略
+     */
+    public void bind(RateLimiterMethodDescriptor descriptor) {
+        if (null == descriptor.getRateLimiterGroup() && descriptor.getTiers().length == 0) {
+            return;
+        }
+        Defaults defaults = new Defaults(descriptor);
+        String rule = dynamicConfigCenterService.registerAttribute(RULE_ATTRIBUTE + descriptor.getName(), EMPTY_RULE,
+                value -> apply(descriptor, defaults, value));
+        apply(descriptor, defaults, rule);
+    }
+
+    private synchronized void apply(RateLimiterMethodDescriptor descriptor, Defaults defaults, String value) {
+        RateLimiterRuleVO rule;
+        try {
+            rule = StringUtils.isBlank(value) ? new RateLimiterRuleVO() : JSON.parseObject(value, RateLimiterRuleVO.class);
+            validate(descriptor, rule);
+        } catch (RuntimeException e) {
+            log.error("限流规则格式错误，保留当前规则 {}：{}", descriptor.getName(), value, e);
+            return;
+        }
+
+        RateLimiterGroup rateLimiterGroup = descriptor.getRateLimiterGroup();
+        if (null != rateLimiterGroup) {
+            double permitsPerSecond = null == rule.getPermitsPerSecond() ? defaults.permitsPerSecond : rule.getPermitsPerSecond();
+            Map<String, Double> keyPermitsPerSecond = null == rule.getKeyPermitsPerSecond() ? Collections.emptyMap() : rule.getKeyPermitsPerSecond();
+            rateLimiterGroup.setPermitsPerSecond(permitsPerSecond, keyPermitsPerSecond);
+
+            // 高频识别阈值按最低频次计算，保证未识别的 key 不会超频
+            HeavyHitterDetector heavyHitterDetector = descriptor.getHeavyHitterDetector();
+            if (null != heavyHitterDetector) {
+                double minPermitsPerSecond = permitsPerSecond;
+                for (Double keyRate : keyPermitsPerSecond.values()) {
+                    minPermitsPerSecond = Math.min(minPermitsPerSecond, keyRate);
+                }
+                heavyHitterDetector.setWindowPermits(minPermitsPerSecond * heavyHitterDetector.getWindowMillis() / 1000);
+            }
+        }
+
+        RateLimiterTierDescriptor[] tiers = descriptor.getTiers();
+        for (int i = 0; i < tiers.length; i++) {
+            Double tierRate = null == rule.getTierPermitsPerSecond() ? null : rule.getTierPermitsPerSecond().get(tiers[i].getKey());
+            tiers[i].getRateLimiterGroup().setPermitsPerSecond(null == tierRate ? defaults.tierPermitsPerSecond[i] : tierRate, null);
+        }
+
+        Blacklist blacklist = descriptor.getBlacklist();
+        if (null != blacklist) {
+            blacklist.setThreshold(null == rule.getBlacklistCount() ? defaults.blacklistCount : rule.getBlacklistCount());
+        }
+
+        log.info("限流规则已更新 {}：{}", descriptor.getName(), value);
+    }
+
+    private static void validate(RateLimiterMethodDescriptor descriptor, RateLimiterRuleVO rule) {
+        checkPositive("permitsPerSecond", rule.getPermitsPerSecond());
+        checkPositive("blacklistCount", rule.getBlacklistCount());
+        if (null != rule.getKeyPermitsPerSecond()) {
+            if (null == descriptor.getRateLimiterGroup()) {
+                throw new IllegalArgumentException("keyPermitsPerSecond requires permitsPerSecond on annotation");
+            }
+            for (Map.Entry<String, Double> entry : rule.getKeyPermitsPerSecond().entrySet()) {
+                checkPositive("keyPermitsPerSecond." + entry.getKey(), entry.getValue());
+            }
+        }
+        if (null != rule.getTierPermitsPerSecond()) {
+            for (Map.Entry<String, Double> entry : rule.getTierPermitsPerSecond().entrySet()) {
+                checkPositive("tierPermitsPerSecond." + entry.getKey(), entry.getValue());
+                boolean found = false;
+                for (RateLimiterTierDescriptor tier : descriptor.getTiers()) {
+                    found |= tier.getKey().equals(entry.getKey());
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("tier not found: " + entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static void checkPositive(String name, Double value) {
+        if (null != value && !(value > 0d)) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    /**
+     * 注解上的原始值，规则未配置或恢复时使用
+     */
+    private static final class Defaults {
+
+        final double permitsPerSecond;
+
+        final double[] tierPermitsPerSecond;
+
+        final double blacklistCount;
+
+        Defaults(RateLimiterMethodDescriptor descriptor) {
+            this.permitsPerSecond = null == descriptor.getRateLimiterGroup() ? 0 : descriptor.getRateLimiterGroup().getPermitsPerSecond();
+            RateLimiterTierDescriptor[] tiers = descriptor.getTiers();
+            this.tierPermitsPerSecond = new double[tiers.length];
+            for (int i = 0; i < tiers.length; i++) {
+                tierPermitsPerSecond[i] = tiers[i].getRateLimiterGroup().getPermitsPerSecond();
+            }
+            this.blacklistCount = null == descriptor.getBlacklist() ? 0 : descriptor.getBlacklist().getThreshold();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.study.tony.wrench.ratelimiter.filter;
+
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 前置限流过滤器
+ * <p>
+ * 在 DispatcherServlet 之前按 URL 拦截超频请求，省去参数绑定、反序列化和代理调用的开销。
+ * 限流器分组由 RateLimiterRegistry 创建，与注解限流共用同一套限流器存储、过期回收和集群配额。
+ * <p>
+ * 一个请求匹配多条规则时依次获取许可，任一条超频时归还前面已获取的许可，返回配置的状态码。
+ */
+public class RateLimiterFilter implements Filter {
+
+    private final RateLimiterFilterRule[] rules;
+
+    private final int rejectStatus;
+
+    private final RateLimiterEventRecorder rateLimiterEventRecorder;
+
+    public RateLimiterFilter(RateLimiterFilterRule[] rules, int rejectStatus, RateLimiterEventRecorder rateLimiterEventRecorder) {
+        this.rules = rules;
+        this.rejectStatus = rejectStatus;
+        this.rateLimiterEventRecorder = rateLimiterEventRecorder;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
+        if (!(servletRequest instanceof HttpServletRequest) || !(servletResponse instanceof HttpServletResponse)) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].matches(path)) {
+                continue;
+            }
+            String key = rules[i].extractKey(request);
+            if (!rules[i].getRateLimiterGroup().get(key).tryAcquire()) {
+                release(request, path, i);
+                rateLimiterEventRecorder.rejected(rules[i].getName(), key, RateLimiterRejectReasonEnum.RATE_LIMIT);
+                ((HttpServletResponse) servletResponse).setStatus(rejectStatus);
+                return;
+            }
+        }
+        // 放行的请求还会经过注解限流，这里不重复记录放行事件
+        chain.doFilter(servletRequest, servletResponse);
+    }
+
+    /**
+     * 按相反顺序归还第 to 条规则之前已获取的许可
+     */
+    private void release(HttpServletRequest request, String path, int to) {
+        for (int j = to - 1; j >= 0; j--) {
+            if (rules[j].matches(path)) {
+                IRateLimiter rateLimiter = rules[j].getRateLimiterGroup().get(rules[j].extractKey(request));
+                rateLimiter.release();
+            }
+        }
+    }
+
+}
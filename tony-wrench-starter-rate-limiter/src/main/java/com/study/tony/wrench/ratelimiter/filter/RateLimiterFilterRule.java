@@ -0,0 +1,88 @@
+package com.study.tony.wrench.ratelimiter.filter;
+
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterGroup;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.util.AntPathMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 前置限流规则
+ * <p>
+ * 启动时按配置解析，URL 按 Ant 风格匹配；拦截标识支持：
+ * 1. all - 匹配的请求共用一个限流器
+ * 2. ip - 客户端 IP，即 request.getRemoteAddr()，经过代理时配合容器的 RemoteIpValve 使用
+ * 3. header:名称 - 请求头的值，请求头不存在时为 "null"
+ */
+public final class RateLimiterFilterRule {
+
+    public static final String KEY_ALL = "all";
+
+    public static final String KEY_IP = "ip";
+
+    public static final String KEY_HEADER_PREFIX = "header:";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String name;
+
+    private final String[] urlPatterns;
+
+    private final Function<HttpServletRequest, String> keyExtractor;
+
+    private final RateLimiterGroup rateLimiterGroup;
+
+    /**
+     * @throws IllegalArgumentException 未配置 URL 或拦截标识不支持
+     */
+    public RateLimiterFilterRule(String name, List<String> urlPatterns, String key, RateLimiterGroup rateLimiterGroup) {
+        if (null == urlPatterns || urlPatterns.isEmpty()) {
+            throw new IllegalArgumentException("urlPatterns is empty, rule：" + name);
+        }
+        this.name = name;
+        this.urlPatterns = urlPatterns.toArray(new String[0]);
+        this.keyExtractor = compile(name, key);
+        this.rateLimiterGroup = rateLimiterGroup;
+    }
+
+    private static Function<HttpServletRequest, String> compile(String name, String key) {
+        if (StringUtils.isBlank(key) || KEY_ALL.equals(key)) {
+            return request -> KEY_ALL;
+        }
+        if (KEY_IP.equals(key)) {
+            return HttpServletRequest::getRemoteAddr;
+        }
+        if (key.startsWith(KEY_HEADER_PREFIX) && key.length() > KEY_HEADER_PREFIX.length()) {
+            String header = key.substring(KEY_HEADER_PREFIX.length());
+            return request -> String.valueOf(request.getHeader(header));
+        }
+        throw new IllegalArgumentException("key 「" + key + "」 not supported, use all、ip or header:名称, rule：" + name);
+    }
+
+    /**
+     * @param path 去掉 contextPath 后的请求路径
+     */
+    public boolean matches(String path) {
+        for (String urlPattern : urlPatterns) {
+            if (PATH_MATCHER.match(urlPattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String extractKey(HttpServletRequest request) {
+        return keyExtractor.apply(request);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimiterGroup getRateLimiterGroup() {
+        return rateLimiterGroup;
+    }
+
+}
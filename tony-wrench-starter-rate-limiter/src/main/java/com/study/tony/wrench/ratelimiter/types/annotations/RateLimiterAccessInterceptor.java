@@ -1,6 +1,10 @@
 package com.study.tony.wrench.ratelimiter.types.annotations;
 
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterAlgorithmEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+
 import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
@@ -10,13 +14,61 @@ public @interface RateLimiterAccessInterceptor {
     /** 用哪个字段作为拦截标识，未配置则默认走全部 */
     String key() default "all";
 
-    /** 限制频次（每秒请求次数） */
-    double permitsPerSecond();
+    /** 限制频次（每秒请求次数），令牌桶算法下为 0 时只限制并发数 */
+    double permitsPerSecond() default 0;
+
+    /** 限流算法，默认令牌桶；按分钟、天限流时使用滑动窗口 */
+    RateLimiterAlgorithmEnum algorithm() default RateLimiterAlgorithmEnum.TOKEN_BUCKET;
+
+    /** 滑动窗口内的许可数，如每分钟 100 次：windowPermits = 100, window = 1, windowUnit = MINUTES */
+    long windowPermits() default 0;
+
+    /** 滑动窗口时长 */
+    long window() default 1;
+
+    /** 滑动窗口时长单位 */
+    TimeUnit windowUnit() default TimeUnit.SECONDS;
+
+    /** 滑动窗口计数的桶个数，越多越平滑，每个 key 占用 8 字节 * 桶个数 */
+    int windowBuckets() default 10;
+
+    /** 高频访问者识别，先在固定内存的 Count-Min Sketch 中计数，只有访问频次接近限流频次的 key 才创建限流器；key 数量极多时开启，仅单机模式 */
+    boolean heavyHitter() default false;
+
+    /** 多级限流，与本注解的频次限制一起判断，任一级超频即拦截，已获取的许可会归还，不会消耗其他级的配额 */
+    RateLimiterTier[] tiers() default {};
+
+    /** 超频时排队等待许可的超时（毫秒），0 不等待直接拦截；等待者按到达顺序获取许可，只作用于 permitsPerSecond 或滑动窗口这一级，异步方法不支持 */
+    long acquireTimeoutMillis() default 0;
+
+    /** 超频时每个拦截标识最多排队等待的请求数，超过后直接拦截；acquireTimeoutMillis 大于 0 时必须配置 */
+    int acquireMaxWaiting() default 0;
+
+    /** 最大并发数（同一拦截标识同时执行的请求数），0 不限制；可与限制频次同时使用 */
+    int maxConcurrent() default 0;
+
+    /** 并发已满时最多排队等待的请求数，0 不排队直接拦截 */
+    int maxWaiting() default 0;
+
+    /** 排队等待超时（毫秒），超时后拦截 */
+    long waitTimeoutMillis() default 0;
+
+    /** 自适应并发数，按方法执行耗时自动调整并发上限，maxConcurrent 为初始上限；按方法统计，不区分拦截标识 */
+    boolean adaptive() default false;
 
     /** 黑名单拦截（多少次限制后加入黑名单）0 不限制 */
     double blacklistCount() default 0;
 
-    /** 拦截后的执行方法 */
+    /** 黑名单拦截时长（秒），默认24小时 */
+    long blacklistSeconds() default 24 * 60 * 60;
+
+    /** 限流模式，默认单机；集群模式下所有实例共享 permitsPerSecond */
+    RateLimiterModeEnum mode() default RateLimiterModeEnum.LOCAL;
+
+    /** 拦截后的执行方法，参数与被拦截方法一致，可在末尾增加 RateLimiterRejectReasonEnum 参数接收拦截原因 */
     String fallbackMethod();
 
+    /** 拦截后的执行方法所在的类，配置后 fallbackMethod 须为该类的静态方法；默认在当前类中查找 */
+    Class<?> fallbackClass() default void.class;
+
 }
@@ -0,0 +1,27 @@
+package com.study.tony.wrench.ratelimiter.types.annotations;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+
+import java.lang.annotation.*;
+
+/**
+ * 多级限流中的一级，配置在 {@link RateLimiterAccessInterceptor#tiers()} 中
+ * <p>
+ * 如按用户限流的同时按租户、按方法整体限流：
+ * tiers = {@RateLimiterTier(key = "tenantId", permitsPerSecond = 100), @RateLimiterTier(permitsPerSecond = 1000)}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+@Documented
+public @interface RateLimiterTier {
+
+    /** 用哪个字段作为拦截标识，写法同 {@link RateLimiterAccessInterceptor#key()}；默认 all 即整个方法的总频次上限 */
+    String key() default "all";
+
+    /** 限制频次（每秒请求次数），令牌桶算法 */
+    double permitsPerSecond();
+
+    /** 限流模式，默认单机；集群模式下所有实例共享 permitsPerSecond */
+    RateLimiterModeEnum mode() default RateLimiterModeEnum.LOCAL;
+
+}
@@ -0,0 +1,17 @@
+package com.study.tony.wrench.ratelimiter.types.enums;
+
+/**
+ * 限流算法
+ */
+public enum RateLimiterAlgorithmEnum {
+
+    /** 令牌桶，按 permitsPerSecond 平滑限流，允许 1 秒的突发量 */
+    TOKEN_BUCKET,
+
+    /** 滑动窗口日志，记录窗口内每次放行的时间，精确但内存随 windowPermits 增长，适合许可数较小的窗口 */
+    SLIDING_WINDOW_LOG,
+
+    /** 滑动窗口计数，窗口切分为固定个数的桶计数，内存固定，适合每分钟、每天这类大窗口 */
+    SLIDING_WINDOW_COUNTER,
+
+}
@@ -0,0 +1,14 @@
+package com.study.tony.wrench.ratelimiter.types.enums;
+
+/**
+ * 限流模式
+ */
+public enum RateLimiterModeEnum {
+
+    /** 单机限流，每个实例各自按 permitsPerSecond 限流 */
+    LOCAL,
+
+    /** 集群限流，所有实例共享 permitsPerSecond，令牌桶存放在 Redis 中 */
+    CLUSTER,
+
+}
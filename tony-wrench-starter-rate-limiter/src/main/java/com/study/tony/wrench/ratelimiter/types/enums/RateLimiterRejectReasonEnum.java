@@ -0,0 +1,20 @@
+package com.study.tony.wrench.ratelimiter.types.enums;
+
+/**
+ * 限流拦截原因，回调方法最后一个参数声明为该类型时传入
+ */
+public enum RateLimiterRejectReasonEnum {
+
+    /** 黑名单拦截 */
+    BLACKLIST,
+
+    /** 超频次拦截 */
+    RATE_LIMIT,
+
+    /** 超并发拦截 */
+    CONCURRENCY,
+
+    /** 自适应并发拦截 */
+    ADAPTIVE_CONCURRENCY,
+
+}
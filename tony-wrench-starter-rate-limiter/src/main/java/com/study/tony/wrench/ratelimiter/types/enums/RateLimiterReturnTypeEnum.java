@@ -0,0 +1,41 @@
+package com.study.tony.wrench.ratelimiter.types.enums;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 被拦截方法的返回类型，决定许可在什么时候获取和释放
+ */
+public enum RateLimiterReturnTypeEnum {
+
+    /** 同步方法，调用时获取许可，方法返回后释放 */
+    SYNC,
+
+    /** CompletionStage、CompletableFuture，调用时获取许可，异步结果完成后释放 */
+    COMPLETION_STAGE,
+
+    /** Reactor Mono，订阅时获取许可，终止或取消后释放 */
+    MONO,
+
+    /** Reactor Flux，订阅时获取许可，终止或取消后释放 */
+    FLUX,
+
+    ;
+
+    /**
+     * 按方法声明的返回类型判断；Reactor 按类名比较，未引入 reactor-core 时不会加载
+     */
+    public static RateLimiterReturnTypeEnum of(Class<?> returnType) {
+        if (CompletionStage.class == returnType || CompletableFuture.class == returnType) {
+            return COMPLETION_STAGE;
+        }
+        if ("reactor.core.publisher.Mono".equals(returnType.getName())) {
+            return MONO;
+        }
+        if ("reactor.core.publisher.Flux".equals(returnType.getName())) {
+            return FLUX;
+        }
+        return SYNC;
+    }
+
+}
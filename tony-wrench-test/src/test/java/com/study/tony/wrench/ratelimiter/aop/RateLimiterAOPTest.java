@@ -0,0 +1,248 @@
+package com.study.tony.wrench.ratelimiter.aop;
+
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorFactory;
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterTier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class RateLimiterAOPTest {
+
+    private final RateLimiterEventRecorder rateLimiterEventRecorder = new RateLimiterEventRecorder();
+
+    private final Api target = new Api();
+
+    private Api api;
+
+    private RateLimiterAOP rateLimiterAOP;
+
+    @Before
+    public void init() {
+        RateLimiterDescriptorCache rateLimiterDescriptorCache = new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(
+                new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 60_000, 1000), new KeyExtractorFactory(), new FallbackInvokerFactory()));
+        rateLimiterAOP = new RateLimiterAOP(rateLimiterDescriptorCache, rateLimiterEventRecorder);
+        ReflectionTestUtils.setField(rateLimiterAOP, "rateLimiterSwitch", "open");
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(rateLimiterAOP);
+        api = proxyFactory.getProxy();
+    }
+
+    @Test
+    public void test_tiers() {
+        // 用户每秒 3 次，租户每秒 5 次，整体每秒 8 次
+        int acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!api.draw("user01", "tenant01").startsWith("fallback")) acquired++;
+        }
+        Assert.assertEquals(3, acquired);
+
+        // 租户层拦截时，不消耗用户层的许可
+        acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!api.draw("user02", "tenant01").startsWith("fallback")) acquired++;
+        }
+        Assert.assertEquals(2, acquired);
+        for (int i = 0; i < 10; i++) {
+            if (!api.draw("user02", "tenant02").startsWith("fallback")) acquired++;
+        }
+        Assert.assertEquals(3, acquired);
+
+        // 整体上限只剩 2 次
+        acquired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!api.draw("user0" + (3 + i), "tenant03").startsWith("fallback")) acquired++;
+        }
+        log.info("测试结果:{} {}", acquired, rateLimiterEventRecorder.stats());
+        Assert.assertEquals(2, acquired);
+        Assert.assertEquals(8, rateLimiterEventRecorder.stats().getPermittedCount());
+    }
+
+    @Test
+    public void test_acquire_timeout() {
+        // 每秒 5 次，超频的请求排队等待而不是直接拦截
+        long start = System.nanoTime();
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals("user01", api.batch("user01"));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("测试结果:{}", elapsedMillis);
+        Assert.assertTrue(elapsedMillis >= 400);
+    }
+
+    @Test
+    public void test_completable_future() {
+        // 并发数按异步结果完成计算，而不是方法返回
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        Assert.assertSame(first, api.async("user01", first));
+        Assert.assertSame(second, api.async("user01", second));
+
+        // 拦截时回调异常以失败的 future 返回
+        CompletableFuture<String> rejected = api.async("user01", CompletableFuture.completedFuture("user01"));
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+
+        first.complete("user01");
+        Assert.assertEquals("user01", api.async("user01", CompletableFuture.completedFuture("user01")).join());
+    }
+
+    @Test
+    public void test_concurrency_rejection_returns_rate_permits() {
+        // 每秒 2 次、整体每秒 2 次、并发 1：并发数拦截的请求归还已获取的频次许可
+        CompletableFuture<String> running = new CompletableFuture<>();
+        Assert.assertSame(running, api.guarded("user01", running));
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("fallback:user01", api.guarded("user01", CompletableFuture.completedFuture("user01")).join());
+        }
+        running.complete("user01");
+        log.info("测试结果:{}", rateLimiterEventRecorder.stats());
+        Assert.assertEquals("user01", api.guarded("user01", CompletableFuture.completedFuture("user01")).join());
+    }
+
+    @Test
+    public void test_jdk_proxy() {
+        // JDK 代理拦截到的是接口方法，注解在实现类上
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new DrawServiceImpl());
+        proxyFactory.addAspect(rateLimiterAOP);
+        DrawService drawService = proxyFactory.getProxy();
+        Assert.assertTrue(Proxy.isProxyClass(drawService.getClass()));
+
+        Assert.assertEquals("user01", drawService.draw("user01"));
+        Assert.assertEquals("fallback:user01", drawService.draw("user01"));
+        Assert.assertEquals("user02", drawService.draw("user02"));
+    }
+
+    @Test
+    public void test_mono() {
+        // 订阅时才获取许可、调用业务方法
+        Mono<String> pending = api.mono("user01", Mono.never());
+        Assert.assertEquals(0, target.invoked.get());
+        Disposable subscription = pending.subscribe();
+        Assert.assertEquals(1, target.invoked.get());
+
+        // 拦截时回调异常作为错误信号下发
+        try {
+            api.mono("user01", Mono.just("user01")).block();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            log.info("测试结果:{}", e.getMessage());
+        }
+
+        // 取消订阅后释放许可
+        subscription.dispose();
+        Assert.assertEquals("user01", api.mono("user01", Mono.just("user01")).block());
+    }
+
+    @Test
+    public void test_flux() {
+        Flux<String> flux = api.flux("user01", Flux.just("a", "b"));
+        Assert.assertEquals(Arrays.asList("a", "b"), flux.collectList().block());
+        // 每次订阅各自获取许可，完成后释放
+        Assert.assertEquals(Arrays.asList("a", "b"), flux.collectList().block());
+        Assert.assertEquals(2, target.invoked.get());
+    }
+
+    interface DrawService {
+
+        String draw(String userId);
+
+    }
+
+    static class DrawServiceImpl implements DrawService {
+
+        @Override
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1, fallbackMethod = "fallback")
+        public String draw(String userId) {
+            return userId;
+        }
+
+        public String fallback(String userId) {
+            return "fallback:" + userId;
+        }
+
+    }
+
+    static class Api {
+
+        private final AtomicInteger invoked = new AtomicInteger();
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 3, fallbackMethod = "fallback",
+                tiers = {@RateLimiterTier(key = "tenantId", permitsPerSecond = 5), @RateLimiterTier(permitsPerSecond = 8)})
+        public String draw(String userId, String tenantId) {
+            return userId;
+        }
+
+        public String fallback(String userId, String tenantId) {
+            return "fallback:" + userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 5, acquireTimeoutMillis = 1000, acquireMaxWaiting = 10, fallbackMethod = "batchFallback")
+        public String batch(String userId) {
+            return userId;
+        }
+
+        public String batchFallback(String userId) {
+            return "fallback:" + userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", maxConcurrent = 2, fallbackMethod = "asyncFallback")
+        public CompletableFuture<String> async(String userId, CompletableFuture<String> result) {
+            return result;
+        }
+
+        public CompletableFuture<String> asyncFallback(String userId, CompletableFuture<String> result) {
+            throw new IllegalStateException("rejected:" + userId);
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 2, maxConcurrent = 1, fallbackMethod = "guardedFallback",
+                tiers = {@RateLimiterTier(permitsPerSecond = 2)})
+        public CompletableFuture<String> guarded(String userId, CompletableFuture<String> result) {
+            return result;
+        }
+
+        public CompletableFuture<String> guardedFallback(String userId, CompletableFuture<String> result) {
+            return CompletableFuture.completedFuture("fallback:" + userId);
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", maxConcurrent = 1, fallbackMethod = "monoFallback")
+        public Mono<String> mono(String userId, Mono<String> result) {
+            invoked.incrementAndGet();
+            return result;
+        }
+
+        public Mono<String> monoFallback(String userId, Mono<String> result) {
+            throw new IllegalStateException("rejected:" + userId);
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", maxConcurrent = 1, fallbackMethod = "fluxFallback")
+        public Flux<String> flux(String userId, Flux<String> result) {
+            invoked.incrementAndGet();
+            return result;
+        }
+
+        public Flux<String> fluxFallback(String userId, Flux<String> result) {
+            return Flux.error(new IllegalStateException("rejected:" + userId));
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.study.tony.wrench.ratelimiter.domain.blacklist;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class BlacklistTest {
+
+    @Test
+    public void test_block_after_threshold() {
+        Blacklist blacklist = new Blacklist(2, 60000, 1000);
+        Assert.assertFalse(blacklist.isBlocked("xiaofuge"));
+        Assert.assertFalse(blacklist.recordRejection("xiaofuge"));
+        Assert.assertFalse(blacklist.recordRejection("xiaofuge"));
+        Assert.assertTrue(blacklist.recordRejection("xiaofuge"));
+        Assert.assertTrue(blacklist.isBlocked("xiaofuge"));
+        Assert.assertFalse(blacklist.isBlocked("other"));
+    }
+
+    @Test
+    public void test_ban_window() throws InterruptedException {
+        Blacklist blacklist = new Blacklist(0, 500, 1000);
+        blacklist.recordRejection("xiaofuge");
+        Assert.assertTrue(blacklist.isBlocked("xiaofuge"));
+        Thread.sleep(600);
+        Assert.assertFalse(blacklist.isBlocked("xiaofuge"));
+    }
+
+    @Test
+    public void test_concurrent_increments_not_lost() throws InterruptedException {
+        int threads = 8, times = 1000;
+        Blacklist blacklist = new Blacklist(threads * times - 1, 60000, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger blocked = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < times; i++) {
+                    if (blacklist.recordRejection("xiaofuge")) blocked.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        log.info("测试结果:{}", blocked.get());
+        // 只有最后一次递增越过阈值
+        Assert.assertEquals(1, blocked.get());
+        Assert.assertTrue(blacklist.isBlocked("xiaofuge"));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class LeasedRateLimiterTest {
+
+    @Test
+    public void test_shared_between_nodes() {
+        // 两个工厂模拟两个实例，共享同一个配额中心
+        MemoryQuotaAuthority authority = new MemoryQuotaAuthority();
+        IRateLimiter node01 = new LeasedRateLimiterFactory(authority, 100, 100).create("IndexController#draw:all", 100);
+        IRateLimiter node02 = new LeasedRateLimiterFactory(authority, 100, 100).create("IndexController#draw:all", 100);
+
+        long start = System.currentTimeMillis();
+        int acquired = 0;
+        // 续租期间空租约直接拒绝，持续请求一段时间，让各实例的租约轮转起来
+        while (System.currentTimeMillis() - start < 200) {
+            if (node01.tryAcquire()) acquired++;
+            if (node02.tryAcquire()) acquired++;
+        }
+        // 桶容量 + 执行期间补充的令牌
+        long limit = 100 + (System.currentTimeMillis() - start) * 100 / 1000 + 1;
+        log.info("测试结果:{} 上限:{}", acquired, limit);
+        // 结束时两个实例的租约中可能还各留有一个租约（10 个）的令牌未消费
+        Assert.assertTrue(acquired >= 80 && acquired <= limit);
+    }
+
+    @Test
+    public void test_async_refresh() throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        AtomicInteger syncCount = new AtomicInteger();
+        AtomicInteger asyncCount = new AtomicInteger();
+        MemoryQuotaAuthority memory = new MemoryQuotaAuthority();
+        IQuotaAuthority authority = (key, permitsPerSecond, capacity, requested) -> {
+            (Thread.currentThread() == caller ? syncCount : asyncCount).incrementAndGet();
+            return memory.acquire(key, permitsPerSecond, capacity, requested);
+        };
+        IRateLimiter rateLimiter = new LeasedRateLimiterFactory(authority, 100, 100).create("IndexController#draw:xiaofuge", 1000);
+
+        for (int i = 0; i < 80; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire());
+        }
+        Thread.sleep(50);
+        for (int i = 0; i < 80; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire());
+        }
+        // 剩余不足 1/4 时已在后台续租，请求线程只领取了首个租约
+        log.info("测试结果:{} {}", syncCount.get(), asyncCount.get());
+        Assert.assertEquals(1, syncCount.get());
+        Assert.assertTrue(asyncCount.get() >= 1);
+    }
+
+    @Test
+    public void test_lease_adapts_to_local_rate() throws InterruptedException {
+        LeasedRateLimiter rateLimiter = (LeasedRateLimiter) new LeasedRateLimiterFactory(new MemoryQuotaAuthority(), 100, 100, Runnable::run)
+                .create("IndexController#draw:xiaofuge", 1000);
+        Assert.assertEquals(100, rateLimiter.getLeaseSize());
+
+        // 本地每秒约 100 次请求，远低于全局 1000/s，租约逐步缩小，减少过期作废的令牌
+        for (int i = 0; i < 60; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire());
+            Thread.sleep(10);
+        }
+        log.info("测试结果:{}", rateLimiter.getLeaseSize());
+        Assert.assertTrue(rateLimiter.getLeaseSize() < 50);
+    }
+
+    @Test
+    public void test_single_flight_when_over_limit() throws InterruptedException {
+        MemoryQuotaAuthority memory = new MemoryQuotaAuthority();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicLong granted = new AtomicLong();
+        IQuotaAuthority authority = (key, permitsPerSecond, capacity, requested) -> {
+            calls.incrementAndGet();
+            long permits = memory.acquire(key, permitsPerSecond, capacity, requested);
+            granted.addAndGet(permits);
+            return permits;
+        };
+        IRateLimiter rateLimiter = new LeasedRateLimiterFactory(authority, 100, 100).create("IndexController#draw:all", 100);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger acquired = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    if (rateLimiter.tryAcquire()) acquired.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // 超频后在本地拒绝：配额中心访问次数约为 每个租约一次 + 每 1/速率 一次，远小于请求数
+        log.info("测试结果:{} 领取:{} 访问配额中心:{} 耗时:{}ms", acquired.get(), granted.get(), calls.get(), elapsed);
+        Assert.assertTrue(calls.get() < 50 + elapsed * 100 / 1000 * 2);
+        // 并发领取的令牌追加到租约，不作废
+        Assert.assertTrue(acquired.get() <= granted.get() && acquired.get() >= granted.get() - 100);
+    }
+
+    @Test
+    public void test_close_lease_executor() {
+        LeasedRateLimiterFactory factory = new LeasedRateLimiterFactory(new MemoryQuotaAuthority(), 100, 100);
+        RateLimiterRegistry registry = new RateLimiterRegistry(new TokenBucketRateLimiterFactory(), factory, 1000, 100);
+        IRateLimiter rateLimiter = factory.create("IndexController#draw:all", 1000);
+        registry.close();
+        // 续租线程池关闭后退化为同步领取，限流照常可用
+        int acquired = 0;
+        for (int i = 0; i < 300; i++) {
+            if (rateLimiter.tryAcquire()) acquired++;
+        }
+        log.info("测试结果:{}", acquired);
+        Assert.assertTrue(acquired >= 100);
+    }
+
+}
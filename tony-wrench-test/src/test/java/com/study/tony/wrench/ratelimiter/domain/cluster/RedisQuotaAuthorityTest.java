@@ -0,0 +1,70 @@
+package com.study.tony.wrench.ratelimiter.domain.cluster;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.io.IOException;
+
+@Slf4j
+public class RedisQuotaAuthorityTest {
+
+    private RedisServer redisServer;
+
+    private RedissonClient redissonClient;
+
+    @Before
+    public void init() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redisServer.getHost() + ":" + redisServer.getBindPort());
+        redissonClient = Redisson.create(config);
+    }
+
+    @After
+    public void destroy() throws IOException {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Test
+    public void test_shared_between_nodes() {
+        // 两个工厂模拟两个实例，共享同一个 Redis 令牌桶
+        IRateLimiter node01 = new LeasedRateLimiterFactory(new RedisQuotaAuthority(redissonClient, "test"), 100, 100).create("IndexController#draw:all", 100);
+        IRateLimiter node02 = new LeasedRateLimiterFactory(new RedisQuotaAuthority(redissonClient, "test"), 100, 100).create("IndexController#draw:all", 100);
+
+        long start = System.currentTimeMillis();
+        int acquired = 0;
+        // 续租期间空租约直接拒绝，持续请求一段时间，让各实例的租约轮转起来
+        while (System.currentTimeMillis() - start < 200) {
+            if (node01.tryAcquire()) acquired++;
+            if (node02.tryAcquire()) acquired++;
+        }
+        // 桶容量 + 执行期间补充的令牌
+        long limit = 100 + (System.currentTimeMillis() - start) * 100 / 1000 + 1;
+        log.info("测试结果:{} 上限:{}", acquired, limit);
+        // 结束时两个实例的租约中可能还各留有一个租约（10 个）的令牌未消费
+        Assert.assertTrue(acquired >= 80 && acquired <= limit);
+    }
+
+    @Test
+    public void test_lease_avoids_round_trips() {
+        RedisQuotaAuthority authority = new RedisQuotaAuthority(redissonClient, "test");
+        IRateLimiter rateLimiter = new LeasedRateLimiterFactory(authority, 100, 50, Runnable::run).create("IndexController#draw:xiaofuge", 1000);
+        for (int i = 0; i < 30; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire());
+        }
+        // 租约 50 个令牌，前 30 次只领取了一次
+        long remaining = authority.acquire("IndexController#draw:xiaofuge", 1000, 1000, 1000);
+        log.info("测试结果:{}", remaining);
+        Assert.assertTrue(remaining >= 950);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import com.alibaba.fastjson.JSON;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.AttributeVO;
+import com.study.tony.wrench.ratelimiter.domain.service.IDynamicAttributeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Slf4j
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void test_histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        long p50 = TimeUnit.NANOSECONDS.toMicros(histogram.drain(0.5, 1));
+        log.info("测试结果:{}", p50);
+        // 分桶相对误差不超过 1/16
+        Assert.assertTrue(p50 >= 500 * 15 / 16 && p50 <= 500);
+        // 读取后清零
+        Assert.assertEquals(-1, histogram.drain(0.5, 1));
+    }
+
+    @Test
+    public void test_gradient() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("IndexController#draw", 20, 1, 1000, 1, null);
+
+        // 耗时稳定，上限逐步放大
+        run(limiter, 30, TimeUnit.MILLISECONDS.toNanos(1));
+        int grown = limiter.getLimit();
+        // 耗时上升 10 倍，下游开始排队，上限收缩
+        run(limiter, 10, TimeUnit.MILLISECONDS.toNanos(10));
+        int shrunk = limiter.getLimit();
+
+        log.info("测试结果:{} {} {}", grown, shrunk, JSON.toJSONString(limiter.stats()));
+        Assert.assertTrue(grown > 20);
+        Assert.assertTrue(shrunk < grown);
+    }
+
+    @Test
+    public void test_pin_by_dynamic_config_center() throws InterruptedException {
+        MemoryDynamicConfigCenterService dynamicConfigCenterService = new MemoryDynamicConfigCenterService();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiterFactory(20, 1, 1000, 1, dynamicConfigCenterService)
+                .create("IndexController#draw", 0);
+        Assert.assertEquals("20", dynamicConfigCenterService.values.get("rateLimiterAdaptiveLimit_IndexController#draw"));
+
+        // 上限变化后发布到配置中心
+        run(limiter, 10, TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(String.valueOf(limiter.getLimit()), dynamicConfigCenterService.values.get("rateLimiterAdaptiveLimit_IndexController#draw"));
+
+        // 运维固定上限后不再调整
+        dynamicConfigCenterService.updateAttribute(new AttributeVO("rateLimiterAdaptivePin_IndexController#draw", "5"));
+        run(limiter, 10, TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(5, limiter.getLimit());
+
+        dynamicConfigCenterService.updateAttribute(new AttributeVO("rateLimiterAdaptivePin_IndexController#draw", "0"));
+        Assert.assertTrue(limiter.getLimit() > 5);
+    }
+
+    /**
+     * 每轮占满并发上限，再按指定耗时释放
+     */
+    private static void run(AdaptiveConcurrencyLimiter limiter, int rounds, long latencyNanos) throws InterruptedException {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            long start = System.nanoTime() - latencyNanos;
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(start);
+            }
+            Thread.sleep(2);
+        }
+    }
+
+    private static class MemoryDynamicConfigCenterService implements IDynamicAttributeService {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        private final Map<String, Consumer<String>> listeners = new ConcurrentHashMap<>();
+
+        private final AtomicLong version = new AtomicLong();
+
+        public void updateAttribute(AttributeVO attributeVO) {
+            values.put(attributeVO.getAttribute(), attributeVO.getValue());
+            listeners.get(attributeVO.getAttribute()).accept(attributeVO.getValue());
+        }
+
+        @Override
+        public String registerAttribute(String attribute, String defaultValue, Consumer<String> listener) {
+            listeners.put(attribute, listener);
+            return values.computeIfAbsent(attribute, k -> defaultValue);
+        }
+
+        @Override
+        public void publishAttribute(String attribute, String value) {
+            values.put(attribute, value);
+        }
+
+        @Override
+        public long releaseAttribute(String attribute, String value) {
+            updateAttribute(new AttributeVO(attribute, value, version.incrementAndGet()));
+            return version.get();
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.study.tony.wrench.ratelimiter.domain.concurrency;
+
+import com.alibaba.fastjson.JSON;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.ConcurrencyLimiterStatsVO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void test_max_concurrent() {
+        ConcurrencyLimiterGroup group = new ConcurrencyLimiterGroup("IndexController#draw", 2, 0, 0, 60000, 100);
+        ConcurrencyLimiter limiter = group.get("xiaofuge");
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        // 不同拦截标识互不影响
+        Assert.assertTrue(group.get("liergou").tryAcquire());
+        Assert.assertEquals(2, limiter.inFlight());
+
+        limiter.release();
+        Assert.assertTrue(limiter.tryAcquire());
+
+        ConcurrencyLimiterStatsVO stats = group.stats();
+        log.info("测试结果:{}", JSON.toJSONString(stats));
+        Assert.assertEquals(3, stats.getInFlight());
+        Assert.assertEquals(1, stats.getRejectedCount());
+    }
+
+    @Test
+    public void test_busy_limiter_not_replaced() throws InterruptedException {
+        ConcurrencyLimiterGroup group = new ConcurrencyLimiterGroup("IndexController#draw", 1, 0, 0, 1, 1);
+        ConcurrencyLimiter limiter = group.get("xiaofuge");
+        Assert.assertTrue(limiter.tryAcquire());
+        Thread.sleep(10);
+        group.get("liergou");
+
+        // 执行中的限流器已过期淘汰，再次获取仍是同一个实例，并发上限不被放大
+        ConcurrencyLimiter reloaded = group.get("xiaofuge");
+        log.info("测试结果:{} {}", reloaded == limiter, reloaded.inFlight());
+        Assert.assertSame(limiter, reloaded);
+        Assert.assertFalse(reloaded.tryAcquire());
+        limiter.release();
+        Assert.assertTrue(reloaded.tryAcquire());
+    }
+
+    @Test
+    public void test_wait_for_release() throws Exception {
+        ConcurrencyLimiterGroup group = new ConcurrencyLimiterGroup("IndexController#draw", 1, 1, 5000, 60000, 100);
+        ConcurrencyLimiter limiter = group.get("xiaofuge");
+        Assert.assertTrue(limiter.tryAcquire());
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (group.stats().getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        // 排队已满
+        Assert.assertFalse(limiter.tryAcquire());
+
+        Thread.sleep(50);
+        limiter.release();
+        Assert.assertTrue(waiter.get(1, TimeUnit.SECONDS));
+
+        ConcurrencyLimiterStatsVO stats = group.stats();
+        log.info("测试结果:{}", JSON.toJSONString(stats));
+        Assert.assertEquals(1, stats.getWaitCount());
+        Assert.assertTrue(stats.getWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(0, stats.getWaiting());
+    }
+
+    @Test
+    public void test_wait_timeout() {
+        ConcurrencyLimiterGroup group = new ConcurrencyLimiterGroup("IndexController#draw", 1, 10, 20, 60000, 100);
+        ConcurrencyLimiter limiter = group.get("xiaofuge");
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(1, group.stats().getWaitTimeoutCount());
+    }
+
+}
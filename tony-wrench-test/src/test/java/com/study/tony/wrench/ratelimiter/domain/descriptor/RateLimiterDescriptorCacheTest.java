@@ -0,0 +1,180 @@
+package com.study.tony.wrench.ratelimiter.domain.descriptor;
+
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterReturnTypeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+public class RateLimiterDescriptorCacheTest {
+
+    private final RateLimiterDescriptorCache rateLimiterDescriptorCache = new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(
+            new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 60_000, 1000), new KeyExtractorFactory(), new FallbackInvokerFactory()));
+
+    @Test
+    public void test_descriptor() throws Exception {
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.register(method("draw"), Api.class);
+        log.info("测试结果:{}", descriptor.getName());
+        Assert.assertEquals("com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCacheTest$Api#draw(java.lang.String)", descriptor.getName());
+        Assert.assertEquals("xiaofuge", descriptor.getKeyExtractor().extract(new Object[]{"xiaofuge"}));
+        Assert.assertNotNull(descriptor.getBlacklist());
+        Assert.assertNotNull(descriptor.getRateLimiterGroup());
+        Assert.assertNotNull(descriptor.getConcurrencyLimiterGroup());
+        Assert.assertNull(descriptor.getAdaptiveConcurrencyLimiter());
+        Assert.assertNotNull(descriptor.getFallbackInvoker());
+        Assert.assertEquals(RateLimiterReturnTypeEnum.SYNC, descriptor.getReturnType());
+
+        // 只限制并发数，key 为 all 时不启用黑名单
+        RateLimiterMethodDescriptor concurrencyOnly = rateLimiterDescriptorCache.register(method("concurrencyOnly"), Api.class);
+        Assert.assertNull(concurrencyOnly.getBlacklist());
+        Assert.assertNull(concurrencyOnly.getRateLimiterGroup());
+        Assert.assertNotNull(concurrencyOnly.getConcurrencyLimiterGroup());
+
+        Assert.assertNull(descriptor.getHeavyHitterDetector());
+        Assert.assertNotNull(rateLimiterDescriptorCache.register(method("heavyHitter"), Api.class).getHeavyHitterDetector());
+    }
+
+    @Test
+    public void test_identity_lookup() throws Exception {
+        Method scanned = method("draw");
+        Method copy = method("draw");
+        Assert.assertNotSame(scanned, copy);
+
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.register(scanned, Api.class);
+        Assert.assertSame(descriptor, rateLimiterDescriptorCache.get(scanned));
+        // 反射得到的新副本首次按引用查不到，注册后复用同一个描述
+        Assert.assertNull(rateLimiterDescriptorCache.get(copy));
+        Assert.assertSame(descriptor, rateLimiterDescriptorCache.register(copy, Api.class));
+        Assert.assertSame(descriptor, rateLimiterDescriptorCache.get(copy));
+    }
+
+    @Test
+    public void test_overloaded_methods() throws Exception {
+        RateLimiterMethodDescriptor byUserId = rateLimiterDescriptorCache.register(Api.class.getMethod("overloaded", String.class), Api.class);
+        RateLimiterMethodDescriptor byCount = rateLimiterDescriptorCache.register(Api.class.getMethod("overloaded", Long.class), Api.class);
+        log.info("测试结果:{} {}", byUserId.getName(), byCount.getName());
+        // 重载方法各自独立的限流分组，互不占用令牌
+        Assert.assertNotEquals(byUserId.getName(), byCount.getName());
+        Assert.assertTrue(byUserId.getRateLimiterGroup().get("all").tryAcquire());
+        Assert.assertTrue(byCount.getRateLimiterGroup().get("all").tryAcquire());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_no_limit() throws Exception {
+        rateLimiterDescriptorCache.register(method("noLimit"), Api.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_heavy_hitter_without_key() throws Exception {
+        rateLimiterDescriptorCache.register(method("heavyHitterWithoutKey"), Api.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_waiting_without_timeout() throws Exception {
+        rateLimiterDescriptorCache.register(method("waitingWithoutTimeout"), Api.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_async_waiting() throws Exception {
+        rateLimiterDescriptorCache.register(method("asyncWaiting"), Api.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_key_not_found() throws Exception {
+        rateLimiterDescriptorCache.register(method("keyNotFound"), Api.class);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_fallback_not_found() throws Exception {
+        rateLimiterDescriptorCache.register(method("fallbackNotFound"), Api.class);
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        for (Method method : Api.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    static class Api {
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1, maxConcurrent = 2, blacklistCount = 1, fallbackMethod = "fallback")
+        public String draw(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(maxConcurrent = 2, fallbackMethod = "fallback")
+        public String concurrencyOnly(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 10, heavyHitter = true, fallbackMethod = "fallback")
+        public String heavyHitter(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 10, heavyHitter = true, fallbackMethod = "fallback")
+        public String heavyHitterWithoutKey(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(fallbackMethod = "fallback")
+        public String noLimit(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(maxConcurrent = 2, maxWaiting = 10, fallbackMethod = "fallback")
+        public String waitingWithoutTimeout(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(maxConcurrent = 2, maxWaiting = 10, waitTimeoutMillis = 100, fallbackMethod = "asyncFallback")
+        public CompletableFuture<String> asyncWaiting(String userId) {
+            return CompletableFuture.completedFuture(userId);
+        }
+
+        @RateLimiterAccessInterceptor(key = "orderId", permitsPerSecond = 1, fallbackMethod = "fallback")
+        public String keyNotFound(Long count) {
+            return String.valueOf(count);
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "missing")
+        public String fallbackNotFound(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "fallback")
+        public String overloaded(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "fallback")
+        public String overloaded(Long count) {
+            return String.valueOf(count);
+        }
+
+        public String fallback(String userId) {
+            return "fallback:" + userId;
+        }
+
+        public CompletableFuture<String> asyncFallback(String userId) {
+            return CompletableFuture.completedFuture("fallback:" + userId);
+        }
+
+        public String fallback(Long count) {
+            return "fallback:" + count;
+        }
+
+    }
+
+}
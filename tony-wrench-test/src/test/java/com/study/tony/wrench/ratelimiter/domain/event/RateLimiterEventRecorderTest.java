@@ -0,0 +1,52 @@
+package com.study.tony.wrench.ratelimiter.domain.event;
+
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterEventStatsVO;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterRejectionVO;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+@Slf4j
+public class RateLimiterEventRecorderTest {
+
+    @Test
+    public void test_counts_and_sampled_log() {
+        RateLimiterEventRecorder recorder = new RateLimiterEventRecorder(60_000, 16);
+        for (int i = 0; i < 100; i++) {
+            recorder.permitted();
+            recorder.rejected("Api#draw", "user" + i, i % 2 == 0 ? RateLimiterRejectReasonEnum.RATE_LIMIT : RateLimiterRejectReasonEnum.BLACKLIST);
+        }
+        recorder.banned("Api#draw", "user1", 1000);
+
+        RateLimiterEventStatsVO stats = recorder.stats();
+        log.info("测试结果:{}", stats);
+        Assert.assertEquals(100, stats.getPermittedCount());
+        Assert.assertEquals(100, stats.getRejectedCount());
+        Assert.assertEquals(50L, stats.getRejectedCountByReason().get(RateLimiterRejectReasonEnum.RATE_LIMIT).longValue());
+        Assert.assertEquals(0L, stats.getRejectedCountByReason().get(RateLimiterRejectReasonEnum.CONCURRENCY).longValue());
+        Assert.assertEquals(1, stats.getBannedCount());
+        // 间隔内只输出第一条
+        Assert.assertEquals(100, stats.getSuppressedLogCount());
+    }
+
+    @Test
+    public void test_recent_rejections() {
+        RateLimiterEventRecorder recorder = new RateLimiterEventRecorder(0, 10);
+        Assert.assertTrue(recorder.recentRejections().isEmpty());
+        for (int i = 0; i < 20; i++) {
+            recorder.rejected("Api#draw", "user" + i, RateLimiterRejectReasonEnum.CONCURRENCY);
+        }
+
+        // 容量向上取整为 16，按时间倒序
+        List<RateLimiterRejectionVO> rejections = recorder.recentRejections();
+        log.info("测试结果:{}", rejections.get(0));
+        Assert.assertEquals(16, rejections.size());
+        Assert.assertEquals("user19", rejections.get(0).getKey());
+        Assert.assertEquals("user4", rejections.get(15).getKey());
+        Assert.assertEquals(RateLimiterRejectReasonEnum.CONCURRENCY, rejections.get(0).getReason());
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.study.tony.wrench.ratelimiter.domain.fallback;
+
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+@Slf4j
+public class FallbackInvokerFactoryTest {
+
+    private final FallbackInvokerFactory fallbackInvokerFactory = new FallbackInvokerFactory();
+
+    private final Api api = new Api();
+
+    @Test
+    public void test_instance_method() throws Throwable {
+        Object result = invoker("draw").invoke(api, api, new Object[]{"xiaofuge"}, RateLimiterRejectReasonEnum.RATE_LIMIT);
+        log.info("测试结果:{}", result);
+        Assert.assertEquals("rateLimiter:xiaofuge", result);
+    }
+
+    @Test
+    public void test_reason_and_primitive() throws Throwable {
+        Assert.assertEquals(-1, invoker("count").invoke(api, api, new Object[]{"xiaofuge", 1}, RateLimiterRejectReasonEnum.BLACKLIST));
+        Assert.assertEquals(-2, invoker("count").invoke(api, api, new Object[]{"xiaofuge", 1}, RateLimiterRejectReasonEnum.CONCURRENCY));
+    }
+
+    @Test
+    public void test_static_and_fallback_class() throws Throwable {
+        Assert.assertEquals("static:xiaofuge", invoker("staticFallback").invoke(api, api, new Object[]{"xiaofuge"}, RateLimiterRejectReasonEnum.RATE_LIMIT));
+        Assert.assertEquals("RATE_LIMIT:xiaofuge", invoker("fallbackClass").invoke(api, api, new Object[]{"xiaofuge"}, RateLimiterRejectReasonEnum.RATE_LIMIT));
+    }
+
+    @Test
+    public void test_private_method_on_target() throws Throwable {
+        // 非公开方法在目标对象上调用
+        Assert.assertEquals("private:xiaofuge", invoker("privateFallback").invoke(new Object(), api, new Object[]{"xiaofuge"}, RateLimiterRejectReasonEnum.RATE_LIMIT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_exception_not_wrapped() throws Throwable {
+        invoker("error").invoke(api, api, new Object[]{"xiaofuge"}, RateLimiterRejectReasonEnum.RATE_LIMIT);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_not_found() {
+        invoker("notFound");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_return_type_mismatch() {
+        invoker("mismatch");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_fallback_class_requires_static() {
+        invoker("fallbackClassInstance");
+    }
+
+    private IFallbackInvoker invoker(String name) {
+        for (Method method : Api.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return fallbackInvokerFactory.get(method, Api.class);
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    static class Api {
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "drawFallback")
+        public String draw(String userId) {
+            return userId;
+        }
+
+        public String drawFallback(String userId) {
+            return "rateLimiter:" + userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "countFallback")
+        public int count(String userId, int times) {
+            return times;
+        }
+
+        public int countFallback(String userId, int times) {
+            return 0;
+        }
+
+        public Integer countFallback(String userId, int times, RateLimiterRejectReasonEnum reason) {
+            return RateLimiterRejectReasonEnum.BLACKLIST == reason ? -1 : -2;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "staticFallbackFallback")
+        public String staticFallback(String userId) {
+            return userId;
+        }
+
+        static String staticFallbackFallback(String userId) {
+            return "static:" + userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "fallback", fallbackClass = Fallbacks.class)
+        public String fallbackClass(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "instanceFallback", fallbackClass = Fallbacks.class)
+        public String fallbackClassInstance(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "privateFallbackFallback")
+        public String privateFallback(String userId) {
+            return userId;
+        }
+
+        private String privateFallbackFallback(String userId) {
+            return "private:" + userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "errorFallback")
+        public String error(String userId) {
+            return userId;
+        }
+
+        public String errorFallback(String userId) {
+            throw new IllegalArgumentException(userId);
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "missing")
+        public String notFound(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(permitsPerSecond = 1, fallbackMethod = "mismatchFallback")
+        public String mismatch(String userId) {
+            return userId;
+        }
+
+        public Integer mismatchFallback(String userId) {
+            return 0;
+        }
+    }
+
+    static class Fallbacks {
+
+        public static String fallback(String userId, RateLimiterRejectReasonEnum reason) {
+            return reason + ":" + userId;
+        }
+
+        public String instanceFallback(String userId) {
+            return userId;
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.study.tony.wrench.ratelimiter.domain.heavyhitter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+@Slf4j
+public class HeavyHitterDetectorTest {
+
+    @Test
+    public void test_sketch_error_bound() {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.01);
+        Assert.assertEquals(2719, sketch.getWidth());
+        Assert.assertEquals(5, sketch.getDepth());
+
+        int total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("user" + i);
+            total++;
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.add("hot");
+            total++;
+        }
+        // 估计值只会偏大，误差不超过 epsilon * 总次数
+        long estimate = sketch.estimate("hot");
+        log.info("测试结果:{}", estimate);
+        Assert.assertTrue(estimate >= 500);
+        Assert.assertTrue(estimate <= 500 + 0.001 * total);
+    }
+
+    @Test
+    public void test_heavy_hitter() {
+        // 每秒 20 次，阈值为窗口许可数的一半
+        HeavyHitterDetector detector = new HeavyHitterDetectorFactory(0.001, 0.01, 60_000).create(20, 1000);
+        Assert.assertEquals(10, detector.getThreshold());
+
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertFalse(detector.isHeavy("bot" + i));
+        }
+        int light = 0;
+        for (int i = 0; i < 30; i++) {
+            if (!detector.isHeavy("hot")) {
+                light++;
+            }
+        }
+        log.info("测试结果:{} {}", light, detector.getHeavyCount());
+        Assert.assertTrue(light <= 10);
+        Assert.assertEquals(30 - light, detector.getHeavyCount());
+    }
+
+    @Test
+    public void test_decay() throws InterruptedException {
+        HeavyHitterDetector detector = new HeavyHitterDetector(new CountMinSketch(0.01, 0.01), 4, 100);
+        for (int i = 0; i < 8; i++) {
+            detector.isHeavy("hot");
+        }
+        Assert.assertTrue(detector.isHeavy("hot"));
+        // 两个窗口后计数衰减到阈值以下
+        Thread.sleep(110);
+        detector.isHeavy("other");
+        Thread.sleep(110);
+        Assert.assertFalse(detector.isHeavy("hot"));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.study.tony.wrench.ratelimiter.domain.key;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+@Slf4j
+public class KeyExtractorFactoryTest {
+
+    private final KeyExtractorFactory keyExtractorFactory = new KeyExtractorFactory();
+
+    @Test
+    public void test_all() throws Exception {
+        IKeyExtractor extractor = keyExtractorFactory.compile(method("draw", String.class), "all");
+        Assert.assertEquals("all", extractor.extract(new Object[]{"xiaofuge"}));
+    }
+
+    @Test
+    public void test_parameter_name() throws Exception {
+        IKeyExtractor extractor = keyExtractorFactory.compile(method("draw", String.class), "userId");
+        Assert.assertEquals("xiaofuge", extractor.extract(new Object[]{"xiaofuge"}));
+    }
+
+    @Test
+    public void test_nested_path() throws Exception {
+        OrderReq req = new OrderReq("100001", new User("xiaofuge", "tenant01"));
+        IKeyExtractor byProperty = keyExtractorFactory.compile(method("order", String.class, OrderReq.class), "user.uId");
+        IKeyExtractor byParameter = keyExtractorFactory.compile(method("order", String.class, OrderReq.class), "req.user.tenantId");
+        log.info("测试结果:{} {}", byProperty.extract(new Object[]{"ch", req}), byParameter.extract(new Object[]{"ch", req}));
+        Assert.assertEquals("xiaofuge", byProperty.extract(new Object[]{"ch", req}));
+        Assert.assertEquals("tenant01", byParameter.extract(new Object[]{"ch", req}));
+        Assert.assertEquals("null", byProperty.extract(new Object[]{"ch", new OrderReq("100002", null)}));
+    }
+
+    @Test
+    public void test_super_class_field() throws Exception {
+        IKeyExtractor extractor = keyExtractorFactory.compile(method("vip", VipOrderReq.class), "orderId");
+        Assert.assertEquals("100003", extractor.extract(new Object[]{new VipOrderReq("100003")}));
+    }
+
+    @Test
+    public void test_record_map_and_getter() throws Exception {
+        Assert.assertEquals("xiaofuge", keyExtractorFactory.compile(method("record", UserRecord.class), "userId")
+                .extract(new Object[]{new UserRecord("xiaofuge")}));
+        Assert.assertEquals("xiaofuge", keyExtractorFactory.compile(method("map", Map.class), "userId")
+                .extract(new Object[]{Collections.singletonMap("userId", "xiaofuge")}));
+        Assert.assertEquals("xiaofuge", keyExtractorFactory.compile(method("getter", IUser.class), "userId")
+                .extract(new Object[]{(IUser) () -> "xiaofuge"}));
+        Assert.assertEquals("tenant01", keyExtractorFactory.compile(method("object", Object.class), "tenantId")
+                .extract(new Object[]{new User("xiaofuge", "tenant01")}));
+    }
+
+    @Test
+    public void test_concrete_type_before_map() throws Exception {
+        // Map 参数对任意键都能解析，具体类型的参数优先
+        IKeyExtractor extractor = keyExtractorFactory.compile(method("mapAndOrder", Map.class, OrderReq.class), "orderId");
+        Assert.assertEquals("100004", extractor.extract(new Object[]{Collections.singletonMap("orderId", "map"), new OrderReq("100004", null)}));
+    }
+
+    @Test
+    public void test_first_string_fallback() throws Exception {
+        // key 解析不到时，兼容原有逻辑使用首个 String 参数
+        Assert.assertEquals("ch", keyExtractorFactory.compile(method("order", String.class, OrderReq.class), "token")
+                .extract(new Object[]{"ch", new OrderReq("100005", null)}));
+        // 能解析到 key 时按 key 取值，不再直接使用首个参数
+        Assert.assertEquals("100005", keyExtractorFactory.compile(method("order", String.class, OrderReq.class), "orderId")
+                .extract(new Object[]{"ch", new OrderReq("100005", null)}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_key_not_found() throws Exception {
+        keyExtractorFactory.compile(method("vip", VipOrderReq.class), "userId");
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return Api.class.getDeclaredMethod(name, parameterTypes);
+    }
+
+    interface Api {
+        String draw(String userId);
+
+        String order(String channel, OrderReq req);
+
+        String vip(VipOrderReq req);
+
+        String record(UserRecord user);
+
+        String map(Map<String, Object> params);
+
+        String getter(IUser user);
+
+        String object(Object user);
+
+        String mapAndOrder(Map<String, Object> params, OrderReq req);
+    }
+
+    interface IUser {
+        String getUserId();
+    }
+
+    record UserRecord(String userId) {
+    }
+
+    static class User {
+        private final String uId;
+        private final String tenantId;
+
+        User(String uId, String tenantId) {
+            this.uId = uId;
+            this.tenantId = tenantId;
+        }
+    }
+
+    static class OrderReq {
+        private final String orderId;
+        private final User user;
+
+        OrderReq(String orderId, User user) {
+            this.orderId = orderId;
+            this.user = user;
+        }
+    }
+
+    static class BaseOrderReq extends OrderReq {
+        BaseOrderReq(String orderId) {
+            super(orderId, null);
+        }
+    }
+
+    static class VipOrderReq extends BaseOrderReq {
+        VipOrderReq(String orderId) {
+            super(orderId);
+        }
+    }
+
+}
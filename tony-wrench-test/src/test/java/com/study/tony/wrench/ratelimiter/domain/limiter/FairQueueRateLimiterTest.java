@@ -0,0 +1,91 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class FairQueueRateLimiterTest {
+
+    @Test
+    public void test_wait_for_permit() {
+        FairQueueRateLimiter rateLimiter = new FairQueueRateLimiter(new TokenBucketRateLimiter(10), 500, 10);
+        drain(rateLimiter);
+        long start = System.nanoTime();
+        Assert.assertTrue(rateLimiter.acquire());
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("测试结果:{}", waitedMillis);
+        Assert.assertTrue(waitedMillis < 500);
+    }
+
+    @Test
+    public void test_timeout_and_max_waiting() throws InterruptedException {
+        FairQueueRateLimiter rateLimiter = new FairQueueRateLimiter(new TokenBucketRateLimiter(1), 300, 2);
+        drain(rateLimiter);
+        int threads = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger acquired = new AtomicInteger();
+        AtomicInteger maxWaiting = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                if (rateLimiter.acquire()) acquired.incrementAndGet();
+                latch.countDown();
+            });
+        }
+        while (latch.getCount() > 0) {
+            maxWaiting.accumulateAndGet(rateLimiter.getWaiting(), Math::max);
+            Thread.sleep(1);
+        }
+        executor.shutdown();
+        log.info("测试结果:{} {}", acquired.get(), maxWaiting.get());
+        // 300 毫秒内没有新许可，排队的请求超时，超出排队上限的请求直接拦截
+        Assert.assertEquals(0, acquired.get());
+        Assert.assertTrue(maxWaiting.get() <= 2);
+        Assert.assertEquals(0, rateLimiter.getWaiting());
+    }
+
+    @Test
+    public void test_fifo() throws InterruptedException {
+        FairQueueRateLimiter rateLimiter = new FairQueueRateLimiter(new TokenBucketRateLimiter(20), 2000, 10);
+        drain(rateLimiter);
+        int threads = 5;
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                if (rateLimiter.acquire()) order.add(id);
+            });
+            thread.start();
+            waiters.add(thread);
+            // 等前一个请求进入队列后再启动下一个
+            while (rateLimiter.getWaiting() + order.size() < t + 1) {
+                Thread.sleep(1);
+            }
+            // 有请求在排队时，不等待的获取也不能插队
+            Assert.assertFalse(rateLimiter.tryAcquire());
+        }
+        for (Thread thread : waiters) {
+            thread.join();
+        }
+        log.info("测试结果:{}", order);
+        Assert.assertEquals(List.of(0, 1, 2, 3, 4), order);
+    }
+
+    private static void drain(IRateLimiter rateLimiter) {
+        while (rateLimiter.tryAcquire()) {
+            // 取完桶内令牌
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import com.alibaba.fastjson.JSON;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.RateLimiterStoreStatsVO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+@Slf4j
+public class RateLimiterRegistryTest {
+
+    @Test
+    public void test_limiter_kept_while_accessed() throws InterruptedException {
+        RateLimiterRegistry registry = new RateLimiterRegistry(new TokenBucketRateLimiterFactory(), 60000, 1000);
+        RateLimiterGroup group = registry.createGroup("IndexController#draw", 1);
+
+        Assert.assertTrue(group.get("xiaofuge").tryAcquire());
+        Thread.sleep(1100);
+        // 原来 1 秒写过期的缓存会在这里新建一个满桶的限流器
+        Assert.assertSame(group.get("xiaofuge"), group.get("xiaofuge"));
+        Assert.assertTrue(group.get("xiaofuge").tryAcquire());
+        Assert.assertFalse(group.get("xiaofuge").tryAcquire());
+    }
+
+    @Test
+    public void test_size_bounded() {
+        RateLimiterRegistry registry = new RateLimiterRegistry(new TokenBucketRateLimiterFactory(), 60000, 100);
+        RateLimiterGroup group = registry.createGroup("IndexController#draw", 1);
+        for (int i = 0; i < 10000; i++) {
+            group.get("user" + i).tryAcquire();
+        }
+
+        RateLimiterStoreStatsVO stats = registry.stats().get(0);
+        log.info("测试结果:{}", JSON.toJSONString(stats));
+        Assert.assertTrue(stats.getSize() <= 100);
+        Assert.assertEquals(10000 - stats.getSize(), stats.getSizeEvictedCount());
+        Assert.assertEquals(10000, stats.getMissCount());
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterAlgorithmEnum;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterModeEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class SlidingWindowRateLimiterTest {
+
+    @Test
+    public void test_window_limit() {
+        // 每分钟 100 次
+        IRateLimiter counter = new SlidingWindowCounterRateLimiter(100 / 60d, TimeUnit.MINUTES.toMillis(1), 60);
+        IRateLimiter log = new SlidingWindowLogRateLimiter(100 / 60d, TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(100, acquire(counter, 1000));
+        Assert.assertEquals(100, acquire(log, 1000));
+    }
+
+    @Test
+    public void test_window_slides() throws InterruptedException {
+        IRateLimiter counter = new SlidingWindowCounterRateLimiter(20, 500, 5);
+        IRateLimiter log = new SlidingWindowLogRateLimiter(20, 500);
+        Assert.assertEquals(10, acquire(counter, 100));
+        Assert.assertEquals(10, acquire(log, 100));
+        Thread.sleep(600);
+        // 上一个窗口的计数已滑出
+        Assert.assertEquals(10, acquire(counter, 100));
+        Assert.assertEquals(10, acquire(log, 100));
+    }
+
+    @Test
+    public void test_release() {
+        IRateLimiter counter = new SlidingWindowCounterRateLimiter(100 / 60d, TimeUnit.MINUTES.toMillis(1), 60);
+        IRateLimiter log = new SlidingWindowLogRateLimiter(100 / 60d, TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(100, acquire(counter, 1000));
+        Assert.assertEquals(100, acquire(log, 1000));
+        counter.release();
+        log.release();
+        Assert.assertEquals(1, acquire(counter, 1000));
+        Assert.assertEquals(1, acquire(log, 1000));
+    }
+
+    @Test
+    public void test_set_rate_keeps_log() {
+        // 每分钟 10 次，用完后调整速率，窗口内的放行记录保留
+        IRateLimiter rateLimiter = new SlidingWindowLogRateLimiter(10 / 60d, TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(10, acquire(rateLimiter, 100));
+        rateLimiter.setRate(15 / 60d);
+        Assert.assertEquals(15 / 60d, rateLimiter.getRate(), 1e-9);
+        int acquired = acquire(rateLimiter, 100);
+        log.info("测试结果:{}", acquired);
+        Assert.assertEquals(5, acquired);
+
+        // 调小后窗口内的放行数已超出，不再放行
+        rateLimiter.setRate(5 / 60d);
+        Assert.assertEquals(0, acquire(rateLimiter, 100));
+    }
+
+    @Test
+    public void test_concurrent() throws InterruptedException {
+        assertConcurrentAcquired(new SlidingWindowCounterRateLimiter(1000, TimeUnit.MINUTES.toMillis(1), 60), 60000);
+        assertConcurrentAcquired(new SlidingWindowLogRateLimiter(1000, TimeUnit.SECONDS.toMillis(5)), 5000);
+    }
+
+    @Test
+    public void test_concurrent_single_permit() throws InterruptedException {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int round = 0; round < 200; round++) {
+            // 每分钟 1 次，并发请求只能有一个占到日志中唯一的位置
+            IRateLimiter rateLimiter = new SlidingWindowLogRateLimiter(1 / 60d, TimeUnit.MINUTES.toMillis(1));
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch latch = new CountDownLatch(threads);
+            AtomicInteger acquired = new AtomicInteger();
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 100; i++) {
+                            if (rateLimiter.tryAcquire()) acquired.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            latch.await();
+            Assert.assertEquals("round " + round, 1, acquired.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void test_group_expire_covers_window() {
+        RateLimiterRegistry registry = new RateLimiterRegistry(new TokenBucketRateLimiterFactory(), 1000, 100);
+        RateLimiterGroup group = registry.createWindowGroup("IndexController#draw", RateLimiterAlgorithmEnum.SLIDING_WINDOW_COUNTER,
+                5000, TimeUnit.DAYS.toMillis(1), 24, RateLimiterModeEnum.LOCAL);
+        IRateLimiter rateLimiter = group.get("xiaofuge");
+        Assert.assertEquals(5000d / TimeUnit.DAYS.toSeconds(1), rateLimiter.getRate(), 1e-9);
+        Assert.assertSame(rateLimiter, group.get("xiaofuge"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_cluster_not_supported() {
+        new RateLimiterRegistry(new TokenBucketRateLimiterFactory(), 1000, 100).createWindowGroup("IndexController#draw",
+                RateLimiterAlgorithmEnum.SLIDING_WINDOW_LOG, 100, 60000, 10, RateLimiterModeEnum.CLUSTER);
+    }
+
+    private static int acquire(IRateLimiter rateLimiter, int times) {
+        int acquired = 0;
+        for (int i = 0; i < times; i++) {
+            if (rateLimiter.tryAcquire()) acquired++;
+        }
+        return acquired;
+    }
+
+    private void assertConcurrentAcquired(IRateLimiter rateLimiter, int expected) throws InterruptedException {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger acquired = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    if (rateLimiter.tryAcquire()) acquired.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        log.info("测试结果:{} {}", rateLimiter.getClass().getSimpleName(), acquired.get());
+        // 窗口内并发也不会超发，计数回退可能导致少量少放
+        Assert.assertTrue(acquired.get() <= expected && acquired.get() >= expected * 0.95);
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.study.tony.wrench.ratelimiter.domain.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void test_burst() {
+        IRateLimiter rateLimiter = new TokenBucketRateLimiter(10);
+        int acquired = 0;
+        for (int i = 0; i < 100; i++) {
+            if (rateLimiter.tryAcquire()) acquired++;
+        }
+        log.info("测试结果:{}", acquired);
+        Assert.assertEquals(10, acquired);
+    }
+
+    @Test
+    public void test_refill() throws InterruptedException {
+        IRateLimiter rateLimiter = new TokenBucketRateLimiter(1);
+        Assert.assertTrue(rateLimiter.tryAcquire());
+        Assert.assertFalse(rateLimiter.tryAcquire());
+        Thread.sleep(1100);
+        Assert.assertTrue(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    public void test_release() {
+        IRateLimiter rateLimiter = new TokenBucketRateLimiter(5);
+        Assert.assertEquals(5, acquire(rateLimiter, 10));
+        // 归还的许可可以再次获取，但不会超出桶容量
+        rateLimiter.release();
+        rateLimiter.release();
+        Assert.assertEquals(2, acquire(rateLimiter, 10));
+
+        IRateLimiter striped = new StripedTokenBucketRateLimiter(1000, 4);
+        int acquired = acquire(striped, 2000);
+        striped.release();
+        Assert.assertEquals(1, acquire(striped, 10));
+        log.info("测试结果:{}", acquired);
+    }
+
+    @Test
+    public void test_striped_low_rate() {
+        // 速率低于分段数时不分段，突发许可不超出总速率
+        Assert.assertTrue(new TokenBucketRateLimiterFactory(8).create("low", 3) instanceof TokenBucketRateLimiter);
+        Assert.assertTrue(new TokenBucketRateLimiterFactory(8).create("high", 1000) instanceof StripedTokenBucketRateLimiter);
+        Assert.assertEquals(3, acquire(new StripedTokenBucketRateLimiter(3, 4), 10));
+
+        // 动态下调速率后同样只使用一个分段
+        IRateLimiter striped = new StripedTokenBucketRateLimiter(1000, 4);
+        striped.setRate(2);
+        int acquired = acquire(striped, 10);
+        log.info("测试结果:{}", acquired);
+        Assert.assertEquals(2, acquired);
+    }
+
+    private static int acquire(IRateLimiter rateLimiter, int times) {
+        int acquired = 0;
+        for (int i = 0; i < times; i++) {
+            if (rateLimiter.tryAcquire()) acquired++;
+        }
+        return acquired;
+    }
+
+    @Test
+    public void test_set_rate_keeps_state() {
+        IRateLimiter rateLimiter = new TokenBucketRateLimiter(5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(rateLimiter.tryAcquire());
+        }
+        rateLimiter.setRate(100);
+        Assert.assertEquals(100d, rateLimiter.getRate(), 0d);
+        // 已消耗的令牌不会因为调整速率而被重置
+        Assert.assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    public void test_concurrent() throws InterruptedException {
+        assertConcurrentAcquired(new TokenBucketRateLimiter(1000), 1000);
+        assertConcurrentAcquired(new StripedTokenBucketRateLimiter(1000, 8), 1000);
+    }
+
+    private void assertConcurrentAcquired(IRateLimiter rateLimiter, int expected) throws InterruptedException {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger acquired = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (rateLimiter.tryAcquire()) acquired.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        log.info("测试结果:{} {}", rateLimiter.getClass().getSimpleName(), acquired.get());
+        // 执行期间会补充少量令牌
+        Assert.assertTrue(acquired.get() >= expected && acquired.get() <= expected + 100);
+    }
+
+}
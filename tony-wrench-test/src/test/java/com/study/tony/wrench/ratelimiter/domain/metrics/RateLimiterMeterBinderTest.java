@@ -0,0 +1,105 @@
+package com.study.tony.wrench.ratelimiter.domain.metrics;
+
+import com.study.tony.wrench.ratelimiter.domain.concurrency.ConcurrencyLimiter;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorFactory;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterMethodDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.enums.RateLimiterRejectReasonEnum;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class RateLimiterMeterBinderTest {
+
+    private final RateLimiterDescriptorCache rateLimiterDescriptorCache = new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(
+            new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 60_000, 10_000), new KeyExtractorFactory(), new FallbackInvokerFactory()));
+
+    @Test
+    public void test_bind() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RateLimiterMethodDescriptor draw = rateLimiterDescriptorCache.register(Api.class.getMethod("draw", String.class), Api.class);
+        new RateLimiterMeterBinder(rateLimiterDescriptorCache).bindTo(registry);
+        // 绑定之后解析的方法也会注册指标
+        RateLimiterMethodDescriptor query = rateLimiterDescriptorCache.register(Api.class.getMethod("query", String.class), Api.class);
+
+        for (int i = 0; i < 1000; i++) {
+            String userId = "user" + i;
+            if (draw.getRateLimiterGroup().get(userId).tryAcquire()) {
+                draw.getMetrics().permitted(1000);
+            }
+            draw.getMetrics().rejected(RateLimiterRejectReasonEnum.RATE_LIMIT, 2000);
+            draw.getMetrics().fallback(5000);
+        }
+        query.getMetrics().permitted(1000);
+
+        log.info("测试结果:{}", registry.getMetersAsString());
+        Assert.assertEquals(1000, registry.get("tony.wrench.ratelimiter.permitted").tag("method", draw.getName()).functionCounter().count(), 0);
+        Assert.assertEquals(1000, registry.get("tony.wrench.ratelimiter.rejected").tag("method", draw.getName()).tag("reason", "RATE_LIMIT").functionCounter().count(), 0);
+        Assert.assertEquals(0, registry.get("tony.wrench.ratelimiter.rejected").tag("method", draw.getName()).tag("reason", "BLACKLIST").functionCounter().count(), 0);
+        Assert.assertEquals(1000, registry.get("tony.wrench.ratelimiter.keys").tag("method", draw.getName()).gauge().value(), 0);
+        FunctionTimer acquire = registry.get("tony.wrench.ratelimiter.acquire").tag("method", draw.getName()).functionTimer();
+        Assert.assertEquals(2000, acquire.count(), 0);
+        Assert.assertEquals(1500, acquire.mean(TimeUnit.NANOSECONDS), 0.001);
+        Assert.assertEquals(5000, registry.get("tony.wrench.ratelimiter.fallback").tag("method", draw.getName()).functionTimer().mean(TimeUnit.NANOSECONDS), 0.001);
+        Assert.assertEquals(1, registry.get("tony.wrench.ratelimiter.permitted").tag("method", query.getName()).functionCounter().count(), 0);
+
+        // 1000 个不同的拦截标识不会产生新的指标
+        Assert.assertEquals(1, registry.find("tony.wrench.ratelimiter.keys").tag("method", draw.getName()).meters().size());
+    }
+
+    @Test
+    public void test_concurrency() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new RateLimiterMeterBinder(rateLimiterDescriptorCache).bindTo(registry);
+        RateLimiterMethodDescriptor queue = rateLimiterDescriptorCache.register(Api.class.getMethod("queue", String.class), Api.class);
+
+        // 占满并发数后再排队一次，等待超时
+        ConcurrencyLimiter concurrencyLimiter = queue.getConcurrencyLimiterGroup().get("all");
+        Assert.assertTrue(concurrencyLimiter.tryAcquire());
+        Assert.assertFalse(concurrencyLimiter.tryAcquire());
+
+        log.info("测试结果:{}", registry.getMetersAsString());
+        Assert.assertEquals(1, registry.get("tony.wrench.ratelimiter.inflight").tag("method", queue.getName()).gauge().value(), 0);
+        Assert.assertEquals(0, registry.get("tony.wrench.ratelimiter.waiting").tag("method", queue.getName()).gauge().value(), 0);
+        FunctionTimer wait = registry.get("tony.wrench.ratelimiter.wait").tag("method", queue.getName()).functionTimer();
+        Assert.assertEquals(1, wait.count(), 0);
+        Assert.assertTrue(wait.totalTime(TimeUnit.MILLISECONDS) >= 10);
+
+        concurrencyLimiter.release();
+        Assert.assertEquals(0, registry.get("tony.wrench.ratelimiter.inflight").tag("method", queue.getName()).gauge().value(), 0);
+    }
+
+    static class Api {
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1, fallbackMethod = "fallback")
+        public String draw(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(maxConcurrent = 1, fallbackMethod = "fallback")
+        public String query(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(maxConcurrent = 1, maxWaiting = 1, waitTimeoutMillis = 10, fallbackMethod = "fallback")
+        public String queue(String userId) {
+            return userId;
+        }
+
+        public String fallback(String userId) {
+            return "fallback:" + userId;
+        }
+
+    }
+
+}
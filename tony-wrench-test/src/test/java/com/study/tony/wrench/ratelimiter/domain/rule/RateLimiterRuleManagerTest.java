@@ -0,0 +1,149 @@
+package com.study.tony.wrench.ratelimiter.domain.rule;
+
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorCache;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterDescriptorFactory;
+import com.study.tony.wrench.ratelimiter.domain.descriptor.RateLimiterMethodDescriptor;
+import com.study.tony.wrench.ratelimiter.domain.fallback.FallbackInvokerFactory;
+import com.study.tony.wrench.ratelimiter.domain.key.KeyExtractorFactory;
+import com.study.tony.wrench.ratelimiter.domain.limiter.IRateLimiter;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.AttributeVO;
+import com.study.tony.wrench.ratelimiter.domain.service.IDynamicAttributeService;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterAccessInterceptor;
+import com.study.tony.wrench.ratelimiter.types.annotations.RateLimiterTier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Slf4j
+public class RateLimiterRuleManagerTest {
+
+    private static final String ATTRIBUTE = RateLimiterRuleManager.RULE_ATTRIBUTE + Api.class.getName() + "#draw(java.lang.String)";
+
+    private final RateLimiterDescriptorCache rateLimiterDescriptorCache = new RateLimiterDescriptorCache(new RateLimiterDescriptorFactory(
+            new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 60_000, 1000), new KeyExtractorFactory(), new FallbackInvokerFactory()));
+
+    private final MemoryDynamicConfigCenterService dynamicConfigCenterService = new MemoryDynamicConfigCenterService();
+
+    @Test
+    public void test_retune_in_place() throws Exception {
+        rateLimiterDescriptorCache.subscribe(new RateLimiterRuleManager(dynamicConfigCenterService)::bind);
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.register(method("draw"), Api.class);
+        Assert.assertEquals("{}", dynamicConfigCenterService.values.get(ATTRIBUTE));
+
+        IRateLimiter xiaofuge = descriptor.getRateLimiterGroup().get("xiaofuge");
+        IRateLimiter liergou = descriptor.getRateLimiterGroup().get("liergou");
+        Assert.assertEquals(10d, xiaofuge.getRate(), 0d);
+
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(ATTRIBUTE,
+                "{\"permitsPerSecond\":20,\"keyPermitsPerSecond\":{\"xiaofuge\":5},\"tierPermitsPerSecond\":{\"all\":50},\"blacklistCount\":3}"));
+        log.info("测试结果:{} {}", xiaofuge.getRate(), liergou.getRate());
+        // 已有限流器原地调整，不重建
+        Assert.assertSame(xiaofuge, descriptor.getRateLimiterGroup().get("xiaofuge"));
+        Assert.assertEquals(5d, xiaofuge.getRate(), 0d);
+        Assert.assertEquals(20d, liergou.getRate(), 0d);
+        Assert.assertEquals(20d, descriptor.getRateLimiterGroup().get("zhangsan").getRate(), 0d);
+        Assert.assertEquals(50d, descriptor.getTiers()[0].getRateLimiterGroup().get("all").getRate(), 0d);
+        Assert.assertEquals(3d, descriptor.getBlacklist().getThreshold(), 0d);
+
+        // 恢复注解上的值
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(ATTRIBUTE, "{}"));
+        Assert.assertEquals(10d, xiaofuge.getRate(), 0d);
+        Assert.assertEquals(10d, liergou.getRate(), 0d);
+        Assert.assertEquals(100d, descriptor.getTiers()[0].getRateLimiterGroup().get("all").getRate(), 0d);
+        Assert.assertEquals(1d, descriptor.getBlacklist().getThreshold(), 0d);
+    }
+
+    @Test
+    public void test_invalid_rule_ignored() throws Exception {
+        dynamicConfigCenterService.values.put(ATTRIBUTE, "{\"permitsPerSecond\":20}");
+        rateLimiterDescriptorCache.subscribe(new RateLimiterRuleManager(dynamicConfigCenterService)::bind);
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.register(method("draw"), Api.class);
+        // 启动时应用配置中心已有的规则
+        Assert.assertEquals(20d, descriptor.getRateLimiterGroup().getPermitsPerSecond(), 0d);
+
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(ATTRIBUTE, "{\"permitsPerSecond\":"));
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(ATTRIBUTE, "{\"permitsPerSecond\":30,\"keyPermitsPerSecond\":{\"xiaofuge\":-1}}"));
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(ATTRIBUTE, "{\"permitsPerSecond\":30,\"tierPermitsPerSecond\":{\"tenantId\":5}}"));
+        Assert.assertEquals(20d, descriptor.getRateLimiterGroup().getPermitsPerSecond(), 0d);
+        Assert.assertTrue(descriptor.getRateLimiterGroup().getKeyPermitsPerSecond().isEmpty());
+    }
+
+    @Test
+    public void test_heavy_hitter_threshold() throws Exception {
+        rateLimiterDescriptorCache.subscribe(new RateLimiterRuleManager(dynamicConfigCenterService)::bind);
+        RateLimiterMethodDescriptor descriptor = rateLimiterDescriptorCache.register(method("heavyHitter"), Api.class);
+        dynamicConfigCenterService.updateAttribute(new AttributeVO(RateLimiterRuleManager.RULE_ATTRIBUTE + descriptor.getName(),
+                "{\"permitsPerSecond\":1000,\"keyPermitsPerSecond\":{\"xiaofuge\":2}}"));
+        // 阈值按最低频次计算，xiaofuge 第 2 次就进入精确限流
+        Assert.assertFalse(descriptor.getHeavyHitterDetector().isHeavy("xiaofuge"));
+        Assert.assertTrue(descriptor.getHeavyHitterDetector().isHeavy("xiaofuge"));
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        for (Method method : Api.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    static class Api {
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 10, blacklistCount = 1, fallbackMethod = "fallback",
+                tiers = {@RateLimiterTier(permitsPerSecond = 100)})
+        public String draw(String userId) {
+            return userId;
+        }
+
+        @RateLimiterAccessInterceptor(key = "userId", permitsPerSecond = 1000, heavyHitter = true, fallbackMethod = "fallback")
+        public String heavyHitter(String userId) {
+            return userId;
+        }
+
+        public String fallback(String userId) {
+            return "fallback:" + userId;
+        }
+
+    }
+
+    private static class MemoryDynamicConfigCenterService implements IDynamicAttributeService {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        private final Map<String, Consumer<String>> listeners = new ConcurrentHashMap<>();
+
+        private final AtomicLong version = new AtomicLong();
+
+        public void updateAttribute(AttributeVO attributeVO) {
+            values.put(attributeVO.getAttribute(), attributeVO.getValue());
+            listeners.get(attributeVO.getAttribute()).accept(attributeVO.getValue());
+        }
+
+        @Override
+        public String registerAttribute(String attribute, String defaultValue, Consumer<String> listener) {
+            listeners.put(attribute, listener);
+            return values.computeIfAbsent(attribute, k -> defaultValue);
+        }
+
+        @Override
+        public void publishAttribute(String attribute, String value) {
+            values.put(attribute, value);
+        }
+
+        @Override
+        public long releaseAttribute(String attribute, String value) {
+            updateAttribute(new AttributeVO(attribute, value, version.incrementAndGet()));
+            return version.get();
+        }
+    }
+
+}
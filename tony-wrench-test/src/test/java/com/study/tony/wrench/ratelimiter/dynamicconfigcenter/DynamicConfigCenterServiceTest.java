@@ -0,0 +1,346 @@
+package com.study.tony.wrench.ratelimiter.dynamicconfigcenter;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.study.tony.wrench.ratelimiter.config.properties.DynamicConfigCenterAutoProperties;
+import com.study.tony.wrench.ratelimiter.domain.model.valobj.AttributeVO;
+import com.study.tony.wrench.ratelimiter.domain.service.DynamicConfigCenterService;
+import com.study.tony.wrench.ratelimiter.domain.service.DynamicConfigCenterSnapshot;
+import com.study.tony.wrench.ratelimiter.types.annotations.DCCValue;
+import com.study.tony.wrench.ratelimiter.types.common.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.redisson.Redisson;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.config.Config;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+public class DynamicConfigCenterServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RedisServer redisServer;
+
+    private RedissonClient redissonClient;
+
+    private DynamicConfigCenterService dynamicConfigCenterService;
+
+    @Before
+    public void init() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        Config config = new Config();
+        config.setCodec(JsonJacksonCodec.INSTANCE);
+        config.useSingleServer().setAddress("redis://" + redisServer.getHost() + ":" + redisServer.getBindPort());
+        redissonClient = Redisson.create(config);
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        dynamicConfigCenterService = new DynamicConfigCenterService(properties, redissonClient);
+    }
+
+    @After
+    public void destroy() throws IOException {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Test
+    public void test_register_attribute() {
+        AtomicReference<String> changed = new AtomicReference<>();
+        String value = dynamicConfigCenterService.registerAttribute("rateLimiterAdaptivePin_IndexController#draw", "0", changed::set);
+        Assert.assertEquals("0", value);
+        Assert.assertEquals("0", redissonClient.getBucket("test_rateLimiterAdaptivePin_IndexController#draw").get());
+
+        dynamicConfigCenterService.updateAttribute(new AttributeVO("rateLimiterAdaptivePin_IndexController#draw", "5"));
+        log.info("测试结果:{}", changed.get());
+        Assert.assertEquals("5", changed.get());
+
+        // 已存在时读取最新值
+        Assert.assertEquals("5", dynamicConfigCenterService.registerAttribute("rateLimiterAdaptivePin_IndexController#draw", "0", changed::set));
+    }
+
+    @Test
+    public void test_publish_attribute() throws InterruptedException {
+        dynamicConfigCenterService.publishAttribute("rateLimiterAdaptiveLimit_IndexController#draw", "42");
+        for (int i = 0; i < 50 && null == redissonClient.getBucket("test_rateLimiterAdaptiveLimit_IndexController#draw").get(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("42", redissonClient.getBucket("test_rateLimiterAdaptiveLimit_IndexController#draw").get());
+    }
+
+    @Test
+    public void test_load_on_post_process() {
+        // 默认逐个读取，后置处理完成时已是Redis中的值，初始化代码可以直接使用
+        redissonClient.getBucket("test_downgradeSwitch").set("1");
+        SwitchBean bean = new SwitchBean();
+        dynamicConfigCenterService.initAttributeByProxy(bean);
+        log.info("测试结果:{} {}", bean.downgradeSwitch, bean.maxThreads);
+        Assert.assertEquals("1", bean.downgradeSwitch);
+        Assert.assertEquals("100", bean.maxThreads);
+        Assert.assertEquals("100", redissonClient.getBucket("test_maxThreads").get());
+    }
+
+    @Test
+    public void test_batch_load() {
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        properties.setBatchLoad(true);
+        dynamicConfigCenterService = new DynamicConfigCenterService(properties, redissonClient);
+
+        redissonClient.getBucket("test_downgradeSwitch").set("1");
+        SwitchBean bean = new SwitchBean();
+        dynamicConfigCenterService.initAttributeByProxy(bean);
+        // 后置处理阶段只注入默认值
+        Assert.assertEquals("0", bean.downgradeSwitch);
+        Assert.assertEquals("100", bean.maxThreads);
+        Assert.assertNull(redissonClient.getBucket("test_maxThreads").get());
+
+        dynamicConfigCenterService.loadPendingAttributes();
+        log.info("测试结果:{} {}", bean.downgradeSwitch, bean.maxThreads);
+        Assert.assertEquals("1", bean.downgradeSwitch);
+        Assert.assertEquals("100", bean.maxThreads);
+        Assert.assertEquals("100", redissonClient.getBucket("test_maxThreads").get());
+
+        // 批量加载完成后，新的Bean直接读取Redis
+        SwitchBean late = new SwitchBean();
+        dynamicConfigCenterService.initAttributeByProxy(late);
+        Assert.assertEquals("1", late.downgradeSwitch);
+    }
+
+    @Test
+    public void test_super_class_field() {
+        VipSwitchBean bean = new VipSwitchBean();
+        SwitchBean base = bean;
+        dynamicConfigCenterService.loadPendingAttributes();
+        Assert.assertSame(bean, dynamicConfigCenterService.initAttributeByProxy(bean));
+        Assert.assertEquals("0", base.downgradeSwitch);
+        Assert.assertEquals("100", base.maxThreads);
+        Assert.assertEquals("vip", bean.vipLevel);
+
+        // 父类上的字段同样可以动态更新
+        dynamicConfigCenterService.updateAttribute(new AttributeVO("downgradeSwitch", "1"));
+        log.info("测试结果:{} {}", base.downgradeSwitch, bean.vipLevel);
+        Assert.assertEquals("1", base.downgradeSwitch);
+
+        // 没有@DCCValue字段的Bean直接跳过
+        Object plain = new Object();
+        Assert.assertSame(plain, dynamicConfigCenterService.initAttributeByProxy(plain));
+    }
+
+    @Test
+    public void test_snapshot() throws InterruptedException {
+        Path path = folder.getRoot().toPath().resolve("test.snapshot");
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        properties.setSnapshotPath(path.toString());
+        redissonClient.getBucket("test_downgradeSwitch").set("1");
+        redissonClient.getBucket("test_rateLimiterAdaptivePin_IndexController#draw").set("3");
+
+        // 启动时不读取Redis，先使用默认值，启动后异步与Redis对齐并写入快照
+        DynamicConfigCenterService service = new DynamicConfigCenterService(properties, redissonClient);
+        SwitchBean bean = new SwitchBean();
+        service.initAttributeByProxy(bean);
+        Assert.assertEquals("0", bean.downgradeSwitch);
+        AtomicReference<String> pin = new AtomicReference<>();
+        Assert.assertEquals("0", service.registerAttribute("rateLimiterAdaptivePin_IndexController#draw", "0", pin::set));
+        service.loadPendingAttributes();
+        for (int i = 0; i < 100 && !("1".equals(bean.downgradeSwitch) && "3".equals(pin.get())); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals("1", bean.downgradeSwitch);
+        Assert.assertEquals("3", pin.get());
+
+        // 动态变更立即生效，快照由后台线程合并后重写
+        service.updateAttribute(new AttributeVO("maxThreads", "100"));
+        service.updateAttribute(new AttributeVO("maxThreads", "200"));
+        Assert.assertEquals("200", bean.maxThreads);
+        DynamicConfigCenterSnapshot snapshot = new DynamicConfigCenterSnapshot(path);
+        for (int i = 0; i < 100 && !"200".equals(snapshot.load().get("test_maxThreads")); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals("200", snapshot.load().get("test_maxThreads"));
+
+        // Redis不可用时使用快照值启动
+        Config config = new Config();
+        config.setCodec(JsonJacksonCodec.INSTANCE);
+        config.setLazyInitialization(true);
+        config.useSingleServer().setAddress("redis://127.0.0.1:1").setConnectTimeout(100).setTimeout(100).setRetryAttempts(0);
+        RedissonClient unavailable = Redisson.create(config);
+        try {
+            DynamicConfigCenterService offline = new DynamicConfigCenterService(properties, unavailable);
+            SwitchBean restarted = new SwitchBean();
+            offline.initAttributeByProxy(restarted);
+            log.info("测试结果:{} {}", restarted.downgradeSwitch, restarted.maxThreads);
+            Assert.assertEquals("1", restarted.downgradeSwitch);
+            Assert.assertEquals("200", restarted.maxThreads);
+            Assert.assertEquals("3", offline.registerAttribute("rateLimiterAdaptivePin_IndexController#draw", "5", value -> {
+            }));
+            // 快照中没有的配置使用默认值
+            Assert.assertEquals("5", offline.registerAttribute("rateLimiterAdaptiveLimit_IndexController#draw", "5", value -> {
+            }));
+        } finally {
+            unavailable.shutdown();
+        }
+    }
+
+    @Test
+    public void test_subscribe_retry() throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Config config = new Config();
+        config.setCodec(JsonJacksonCodec.INSTANCE);
+        config.setLazyInitialization(true);
+        config.useSingleServer().setAddress("redis://127.0.0.1:" + port).setConnectTimeout(100).setTimeout(100).setRetryAttempts(0);
+        RedissonClient late = Redisson.create(config);
+        RedisServer lateServer = null;
+        try {
+            DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+            properties.setSystem("test");
+            DynamicConfigCenterService service = new DynamicConfigCenterService(properties, late);
+            AtomicReference<AttributeVO> received = new AtomicReference<>();
+            RTopic topic = late.getTopic(Constants.getTopic("test"));
+            // Redis不可用时订阅失败，按退避间隔重试
+            service.subscribe(topic, (channel, attributeVO) -> received.set(attributeVO));
+            Thread.sleep(300);
+            lateServer = RedisServer.newRedisServer(port).start();
+
+            for (int i = 0; i < 100 && null == received.get(); i++) {
+                try {
+                    topic.publish(new AttributeVO("downgradeSwitch", "1"));
+                } catch (RuntimeException e) {
+                    log.info("Redis尚未连接 {}", e.getMessage());
+                }
+                Thread.sleep(50);
+            }
+            log.info("测试结果:{}", received.get());
+            Assert.assertNotNull(received.get());
+            Assert.assertEquals("1", received.get().getValue());
+        } finally {
+            late.shutdown();
+            if (null != lateServer) {
+                lateServer.stop();
+            }
+        }
+    }
+
+    @Test
+    public void test_versioned_release() {
+        // 关闭定时比对，只验证按消息顺序应用
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        properties.setRefreshInterval(0);
+        DynamicConfigCenterService node = new DynamicConfigCenterService(properties, redissonClient);
+        SwitchBean bean = new SwitchBean();
+        node.initAttributeByProxy(bean);
+        node.loadPendingAttributes();
+        Assert.assertEquals(0, node.getAttributeVersion());
+
+        Assert.assertEquals(1, dynamicConfigCenterService.releaseAttribute("downgradeSwitch", "1"));
+        Assert.assertEquals(2, dynamicConfigCenterService.releaseAttribute("maxThreads", "200"));
+        Assert.assertEquals(3, dynamicConfigCenterService.releaseAttribute("downgradeSwitch", "2"));
+
+        node.updateAttribute(new AttributeVO("downgradeSwitch", "1", 1));
+        Assert.assertEquals("1", bean.downgradeSwitch);
+        Assert.assertEquals(1, node.getAttributeVersion());
+
+        // 版本 2 的消息丢失，收到版本 3 时增量同步
+        node.updateAttribute(new AttributeVO("downgradeSwitch", "2", 3));
+        Assert.assertEquals("2", bean.downgradeSwitch);
+        Assert.assertEquals("200", bean.maxThreads);
+        Assert.assertEquals(3, node.getAttributeVersion());
+
+        // 迟到的旧版本消息被忽略
+        node.updateAttribute(new AttributeVO("maxThreads", "100", 2));
+        Assert.assertEquals("200", bean.maxThreads);
+        log.info("测试结果:{} {} {}", bean.downgradeSwitch, bean.maxThreads, node.getAttributeVersion());
+    }
+
+    @Test
+    public void test_version_check() throws InterruptedException {
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        properties.setRefreshInterval(50);
+        DynamicConfigCenterService node = new DynamicConfigCenterService(properties, redissonClient);
+        SwitchBean bean = new SwitchBean();
+        node.initAttributeByProxy(bean);
+        node.loadPendingAttributes();
+
+        // 最后一条消息丢失，定时比对版本号后同步
+        Assert.assertEquals(1, dynamicConfigCenterService.releaseAttribute("maxThreads", "300"));
+        for (int i = 0; i < 100 && node.getAttributeVersion() < 1; i++) {
+            Thread.sleep(20);
+        }
+        log.info("测试结果:{} {}", bean.maxThreads, node.getAttributeVersion());
+        Assert.assertEquals("300", bean.maxThreads);
+        Assert.assertEquals(1, node.getAttributeVersion());
+    }
+
+    @Test
+    public void test_null_value_ignored() {
+        Path path = folder.getRoot().toPath().resolve("test.snapshot");
+        DynamicConfigCenterAutoProperties properties = new DynamicConfigCenterAutoProperties();
+        properties.setSystem("test");
+        properties.setRefreshInterval(0);
+        properties.setSnapshotPath(path.toString());
+        redissonClient.getBucket("test_downgradeSwitch").set("0");
+        DynamicConfigCenterService service = new DynamicConfigCenterService(properties, redissonClient);
+        SwitchBean bean = new SwitchBean();
+        service.initAttributeByProxy(bean);
+
+        // 空值的变更直接忽略，不覆盖字段、不写入Redis和快照
+        service.updateAttribute(new AttributeVO("downgradeSwitch", null));
+        service.updateAttribute(new AttributeVO("downgradeSwitch", null, 1));
+        log.info("测试结果:{}", bean.downgradeSwitch);
+        Assert.assertEquals("0", bean.downgradeSwitch);
+        service.updateAttribute(new AttributeVO("downgradeSwitch", "1"));
+        Assert.assertEquals("1", bean.downgradeSwitch);
+    }
+
+    @Test
+    public void test_fan_out() {
+        SwitchBean first = new SwitchBean();
+        SwitchBean second = new VipSwitchBean();
+        dynamicConfigCenterService.initAttributeByProxy(first);
+        dynamicConfigCenterService.initAttributeByProxy(second);
+        // 同一个Bean重复处理不会重复注册
+        dynamicConfigCenterService.initAttributeByProxy(first);
+        dynamicConfigCenterService.loadPendingAttributes();
+
+        dynamicConfigCenterService.updateAttribute(new AttributeVO("downgradeSwitch", "1"));
+        log.info("测试结果:{} {}", first.downgradeSwitch, second.downgradeSwitch);
+        Assert.assertEquals("1", first.downgradeSwitch);
+        Assert.assertEquals("1", second.downgradeSwitch);
+        Assert.assertEquals("100", first.maxThreads);
+    }
+
+    static class SwitchBean {
+
+        @DCCValue("downgradeSwitch:0")
+        private String downgradeSwitch;
+
+        @DCCValue("maxThreads:100")
+        private String maxThreads;
+
+    }
+
+    static class VipSwitchBean extends SwitchBean {
+
+        @DCCValue("vipLevel:vip")
+        private String vipLevel;
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.study.tony.wrench.ratelimiter.dynamicconfigcenter;
+
+import com.study.tony.wrench.ratelimiter.domain.service.DynamicConfigCenterSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+public class DynamicConfigCenterSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_save_and_load() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("dcc/test.snapshot");
+        DynamicConfigCenterSnapshot snapshot = new DynamicConfigCenterSnapshot(path);
+        Assert.assertTrue(snapshot.load().isEmpty());
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("test_downgradeSwitch", "1");
+        values.put("test_rateLimiterRule_IndexController#draw", "{\"permitsPerSecond\":10,\"描述\":\"限流\"}");
+        snapshot.save(values);
+        values.put("test_downgradeSwitch", "2");
+        snapshot.save(values);
+
+        Map<String, String> loaded = new DynamicConfigCenterSnapshot(path).load();
+        log.info("测试结果:{}", loaded);
+        Assert.assertEquals(values, loaded);
+        // 原子替换，不残留临时文件
+        try (java.util.stream.Stream<Path> files = Files.list(path.getParent())) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void test_corrupted() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("test.snapshot");
+        DynamicConfigCenterSnapshot snapshot = new DynamicConfigCenterSnapshot(path);
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("test_downgradeSwitch", "1");
+        snapshot.save(values);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 12] ^= 1;
+        Files.write(path, bytes);
+        Assert.assertTrue(snapshot.load().isEmpty());
+
+        Files.write(path, new byte[]{1, 2, 3});
+        Assert.assertTrue(snapshot.load().isEmpty());
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.study.tony.wrench.ratelimiter.filter;
+
+import com.study.tony.wrench.ratelimiter.domain.event.RateLimiterEventRecorder;
+import com.study.tony.wrench.ratelimiter.domain.limiter.RateLimiterRegistry;
+import com.study.tony.wrench.ratelimiter.domain.limiter.TokenBucketRateLimiterFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+
+@Slf4j
+public class RateLimiterFilterTest {
+
+    private final RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(new TokenBucketRateLimiterFactory(1), 60_000, 1000);
+
+    private final RateLimiterEventRecorder rateLimiterEventRecorder = new RateLimiterEventRecorder();
+
+    // 每个 IP 每秒 3 次，同一租户每秒 5 次
+    private final RateLimiterFilter filter = new RateLimiterFilter(new RateLimiterFilterRule[]{
+            new RateLimiterFilterRule("ip", Collections.singletonList("/api/raffle/**"), "ip", rateLimiterRegistry.createGroup("filter:ip", 3)),
+            new RateLimiterFilterRule("tenant", Collections.singletonList("/api/**"), "header:X-Tenant-Id", rateLimiterRegistry.createGroup("filter:tenant", 5))
+    }, 429, rateLimiterEventRecorder);
+
+    @Test
+    public void test_filter() throws Exception {
+        Assert.assertEquals(3, passed("/api/raffle/draw", "10.0.0.1", "tenant01", 10));
+        // IP 层拦截时归还租户层许可，同一租户还剩 2 次
+        Assert.assertEquals(2, passed("/api/raffle/draw", "10.0.0.2", "tenant01", 10));
+        Assert.assertEquals(0, passed("/api/user/info", "10.0.0.1", "tenant01", 10));
+        Assert.assertEquals(5, passed("/api/user/info", "10.0.0.1", "tenant02", 10));
+        // 未匹配的 URL 不限流
+        Assert.assertEquals(10, passed("/health", "10.0.0.1", "tenant01", 10));
+        log.info("测试结果:{}", rateLimiterEventRecorder.stats());
+        Assert.assertEquals(0, rateLimiterEventRecorder.stats().getPermittedCount());
+    }
+
+    @Test
+    public void test_context_path() throws Exception {
+        MockHttpServletRequest request = request("/app/api/raffle/draw", "10.0.0.3", "tenant03");
+        request.setContextPath("/app");
+        int passed = 0;
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, response, chain);
+            if (null != chain.getRequest()) passed++;
+            else Assert.assertEquals(429, response.getStatus());
+        }
+        Assert.assertEquals(3, passed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_key_not_supported() {
+        new RateLimiterFilterRule("cookie", Collections.singletonList("/api/**"), "cookie:uid", rateLimiterRegistry.createGroup("filter:cookie", 1));
+    }
+
+    private int passed(String uri, String ip, String tenantId, int times) throws Exception {
+        int passed = 0;
+        for (int i = 0; i < times; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request(uri, ip, tenantId), new MockHttpServletResponse(), chain);
+            if (null != chain.getRequest()) passed++;
+        }
+        return passed;
+    }
+
+    private static MockHttpServletRequest request(String uri, String ip, String tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(ip);
+        request.addHeader("X-Tenant-Id", tenantId);
+        return request;
+    }
+
+}